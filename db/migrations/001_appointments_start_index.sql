@@ -0,0 +1,5 @@
+-- Index on the Start column of appointments, used by the week and month views,
+-- the range queries made while appointments are still loading, and the reports.
+-- Run once against the scheduling database before starting the application.
+
+CREATE INDEX idx_appointments_start ON appointments (Start);
@@ -0,0 +1,869 @@
+/**
+ * A bounded pool of MySQL connections shared by the Data Access Objects.
+ *
+ * @author Kevin Miller
+ */
+
+package DataBaseConnection;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.logging.Logger;
+
+/**
+ * A bounded pool of connections behind a DataSource API.
+ * Connections handed out by the pool are returned to it when they are closed.
+ */
+public class ConnectionPool implements DataSource {
+
+    /**
+     * Seconds to wait for a connection to answer a validation check.
+     */
+    private static final int validationTimeoutSeconds = 2;
+
+    /**
+     * Url of the database.
+     */
+    private final String jdbcUrl;
+
+    /**
+     * Username for the database.
+     */
+    private final String userName;
+
+    /**
+     * Password for the database.
+     */
+    private final String password;
+
+    /**
+     * Number of connections the pool keeps open while idle.
+     */
+    private final int minSize;
+
+    /**
+     * Maximum number of connections the pool will open.
+     */
+    private final int maxSize;
+
+    /**
+     * Milliseconds a caller will wait for a free connection.
+     */
+    private final long borrowTimeoutMillis;
+
+    /**
+     * Milliseconds an idle connection above the minimum size is kept before it is closed.
+     */
+    private final long idleTimeoutMillis;
+
+    /**
+     * Milliseconds a connection may be borrowed before it is reported as a leak.
+     */
+    private final long leakThresholdMillis;
+
+    /**
+     * Number of prepared statements cached per connection, zero disables the cache.
+     */
+    private final int statementCacheSize;
+
+    /**
+     * Seconds the calling thread lets a statement run before the driver cancels it, zero for no limit.
+     */
+    private final IntSupplier queryTimeoutSeconds;
+
+    /**
+     * Permits for every connection that can be borrowed.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Idle connections, most recently returned first. Guarded by this pool.
+     */
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+    /**
+     * Connections that are currently borrowed.
+     */
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Background thread for idle eviction and leak detection.
+     */
+    private final ScheduledExecutorService housekeeper;
+
+    /**
+     * Number of physical connections currently open. Guarded by this pool.
+     */
+    private int openCount = 0;
+
+    /**
+     * Set once the pool has been shut down.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Writer required by the DataSource API.
+     */
+    private PrintWriter logWriter;
+
+    /**
+     * Constructor. Opens the minimum number of connections.
+     *
+     * @param jdbcUrl url of the database.
+     * @param userName username for the database.
+     * @param password password for the database.
+     * @param minSize number of connections to keep open.
+     * @param maxSize maximum number of connections to open.
+     * @param borrowTimeoutMillis milliseconds to wait for a free connection.
+     * @param idleTimeoutMillis milliseconds before an extra idle connection is closed.
+     * @param leakThresholdMillis milliseconds before a borrowed connection is reported as a leak.
+     * @param statementCacheSize number of prepared statements cached per connection.
+     * @param queryTimeoutSeconds seconds the calling thread lets a statement run, read each time a statement is handed out.
+     * @throws SQLException throw if a connection cannot be opened.
+     */
+    public ConnectionPool(String jdbcUrl, String userName, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize, IntSupplier queryTimeoutSeconds) throws SQLException {
+        if(minSize < 0 || maxSize < 1 || minSize > maxSize){
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+        }
+        this.jdbcUrl = jdbcUrl;
+        this.userName = userName;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        for(int i = 0; i < minSize; i++){
+            PooledConnection pc = open();
+            synchronized (this){
+                idle.push(pc);
+            }
+        }
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection from the pool. Closing the returned connection gives it back to the pool.
+     *
+     * @return a validated connection.
+     * @throws SQLException throw if no connection becomes free in time or one cannot be opened.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if(closed){
+            throw new SQLException("Connection pool is closed.");
+        }
+        try {
+            if(!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)){
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + "ms waiting for a database connection ("
+                        + borrowed.size() + " of " + maxSize + " in use).");
+            }
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            PooledConnection pc = takeValidIdle();
+            if(pc == null){
+                pc = open();
+            }
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrower = Thread.currentThread();
+            pc.borrowTrace = new Throwable("Connection borrowed by " + Thread.currentThread().getName());
+            borrowed.add(pc);
+            return pc.newHandle();
+        }
+        catch(SQLException | RuntimeException e){
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Borrowing with other credentials is not supported, every pooled connection shares one login.
+     *
+     * @param username ignored.
+     * @param password ignored.
+     * @return nothing.
+     * @throws SQLException always.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections share a single login.");
+    }
+
+    /**
+     * Logic to take an idle connection that still answers a validation check.
+     * Dead connections found along the way are discarded.
+     *
+     * @return a live idle connection, or null if none are left.
+     */
+    private PooledConnection takeValidIdle() {
+        while(true){
+            PooledConnection pc;
+            synchronized (this){
+                pc = idle.poll();
+            }
+            if(pc == null){
+                return null;
+            }
+            if(pc.isValid()){
+                return pc;
+            }
+            System.out.println("Discarding dead pooled connection.");
+            destroy(pc);
+        }
+    }
+
+    /**
+     * Logic to open a new physical connection.
+     *
+     * @return the new pooled connection.
+     * @throws SQLException throw if the connection cannot be opened.
+     */
+    private PooledConnection open() throws SQLException {
+        Connection raw = DriverManager.getConnection(jdbcUrl, userName, password);
+        synchronized (this){
+            openCount++;
+        }
+        return new PooledConnection(raw);
+    }
+
+    /**
+     * Logic to close a physical connection and forget about it.
+     *
+     * @param pc connection to close.
+     */
+    private void destroy(PooledConnection pc) {
+        synchronized (this){
+            openCount--;
+        }
+        pc.closeStatements();
+        try {
+            pc.raw.close();
+        }
+        catch(SQLException e){
+            System.out.println("Error:" + e.getMessage());
+        }
+    }
+
+    /**
+     * Logic to give a borrowed connection back to the pool.
+     * Any open transaction is rolled back so the next borrower starts clean.
+     *
+     * @param pc connection being returned.
+     */
+    private void release(PooledConnection pc) {
+        if(!borrowed.remove(pc)){
+            return;
+        }
+        pc.borrower = null;
+        pc.reclaimStatements();
+        pc.borrowTrace = null;
+        pc.lastReturned = System.currentTimeMillis();
+
+        boolean reusable = !closed;
+        try {
+            if(reusable && !pc.raw.getAutoCommit()){
+                pc.raw.rollback();
+                pc.raw.setAutoCommit(true);
+            }
+        }
+        catch(SQLException e){
+            reusable = false;
+        }
+
+        if(reusable){
+            synchronized (this){
+                idle.push(pc);
+            }
+        }
+        else{
+            destroy(pc);
+        }
+        permits.release();
+    }
+
+    /**
+     * Logic to close idle connections above the minimum size and report leaked connections.
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        synchronized (this){
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while(oldestFirst.hasNext() && openCount > minSize){
+                PooledConnection pc = oldestFirst.next();
+                if(now - pc.lastReturned < idleTimeoutMillis){
+                    break;
+                }
+                oldestFirst.remove();
+                destroy(pc);
+            }
+        }
+
+        for(PooledConnection pc : borrowed){
+            Throwable trace = pc.borrowTrace;
+            if(trace != null && !pc.leakReported && now - pc.borrowedAt > leakThresholdMillis){
+                pc.leakReported = true;
+                System.out.println("Possible connection leak, held for " + (now - pc.borrowedAt) + "ms:");
+                trace.printStackTrace(System.out);
+            }
+        }
+    }
+
+    /**
+     * Shut down the pool, closing every idle connection.
+     * Borrowed connections are closed as they are returned.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        synchronized (this){
+            while(!idle.isEmpty()){
+                destroy(idle.poll());
+            }
+        }
+    }
+
+    /**
+     * Get the number of connections currently borrowed.
+     *
+     * @return number of borrowed connections.
+     */
+    public int getBorrowedCount() {
+        return borrowed.size();
+    }
+
+    /**
+     * Get the number of physical connections currently open.
+     *
+     * @return number of open connections.
+     */
+    public synchronized int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * Logic to cancel the statements running on the connections a thread has borrowed.
+     * Interrupting the thread does not stop a query, so the driver is asked to cancel it on the server instead.
+     *
+     * @param thread that borrowed the connections.
+     */
+    public void cancelStatements(Thread thread) {
+        for(PooledConnection pc : borrowed){
+            if(pc.borrower == thread){
+                pc.cancelStatements();
+            }
+        }
+    }
+
+    /**
+     * Get the log writer of the DataSource.
+     *
+     * @return the log writer, null by default.
+     */
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    /**
+     * Set the log writer of the DataSource.
+     *
+     * @param out log writer to be set.
+     */
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        logWriter = out;
+    }
+
+    /**
+     * Set the login timeout used when opening connections.
+     *
+     * @param seconds to wait for a login.
+     */
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    /**
+     * Get the login timeout used when opening connections.
+     *
+     * @return seconds to wait for a login.
+     */
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    /**
+     * The pool does not use java.util.logging.
+     *
+     * @return nothing.
+     * @throws SQLFeatureNotSupportedException always.
+     */
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /**
+     * Unwrap the pool as the requested interface.
+     *
+     * @param iface interface to unwrap as.
+     * @param <T> type of the interface.
+     * @return this pool.
+     * @throws SQLException throw if the pool does not implement the interface.
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if(iface.isInstance(this)){
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    /**
+     * Check if the pool implements an interface.
+     *
+     * @param iface interface to check.
+     * @return true if the pool implements the interface.
+     */
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private class PooledConnection {
+
+        /**
+         * The physical connection.
+         */
+        private final Connection raw;
+
+        /**
+         * Prepared statements of this connection keyed by SQL text, least recently used first.
+         * Only touched by the current borrower, or by the pool once the connection is returned.
+         */
+        private final LinkedHashMap<String, CachedStatement> statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if(size() > statementCacheSize){
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        /**
+         * Statements handed out during the current borrow, so another thread can cancel them.
+         */
+        private final Set<Statement> handedOut = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Thread that currently borrows the connection, or null while it is idle.
+         */
+        private volatile Thread borrower;
+
+        /**
+         * Time the connection was last borrowed.
+         */
+        private volatile long borrowedAt;
+
+        /**
+         * Time the connection was last returned.
+         */
+        private volatile long lastReturned = System.currentTimeMillis();
+
+        /**
+         * Stack trace of the current borrower, used to report leaks.
+         */
+        private volatile Throwable borrowTrace;
+
+        /**
+         * Set once the current borrow has been reported as a leak.
+         */
+        private volatile boolean leakReported;
+
+        /**
+         * Constructor.
+         *
+         * @param raw physical connection.
+         */
+        private PooledConnection(Connection raw) {
+            this.raw = raw;
+        }
+
+        /**
+         * Logic to check the connection still answers the database.
+         *
+         * @return true if the connection is usable.
+         */
+        private boolean isValid() {
+            try {
+                return raw.isValid(validationTimeoutSeconds);
+            }
+            catch(SQLException e){
+                return false;
+            }
+        }
+
+        /**
+         * Logic to prepare a statement through the cache.
+         * A cached statement that is still open by the borrower is not shared, a fresh uncached one is prepared instead.
+         *
+         * @param connectionHandle the borrower's connection handle.
+         * @param method prepareStatement overload being called.
+         * @param args arguments to prepareStatement.
+         * @return a statement whose close returns it to the cache.
+         * @throws Throwable throw if the statement cannot be prepared.
+         */
+        private Object prepareCached(Connection connectionHandle, Method method, Object[] args) throws Throwable {
+            StringBuilder key = new StringBuilder((String) args[0]);
+            for(int i = 1; i < args.length; i++){
+                key.append('\u0000').append(args[i]);
+            }
+
+            CachedStatement cs = statementCache.get(key.toString());
+            if(cs != null && cs.current != null){
+                return track((Statement) invoke(method, args));
+            }
+            if(cs == null || cs.raw.isClosed()){
+                cs = new CachedStatement((PreparedStatement) invoke(method, args));
+                statementCache.put(key.toString(), cs);
+            }
+            track(cs.raw);
+            return cs.newHandle(connectionHandle);
+        }
+
+        /**
+         * Logic to apply the calling thread's query timeout to a statement and remember it for cancelling.
+         *
+         * @param statement being handed out.
+         * @return the statement.
+         * @throws SQLException throw if the timeout cannot be set.
+         */
+        private Statement track(Statement statement) throws SQLException {
+            statement.setQueryTimeout(queryTimeoutSeconds.getAsInt());
+            handedOut.add(statement);
+            return statement;
+        }
+
+        /**
+         * Logic to cancel every statement handed out during the current borrow.
+         */
+        private void cancelStatements() {
+            for(Statement statement : handedOut){
+                try {
+                    statement.cancel();
+                }
+                catch(SQLException e){
+                    System.out.println("Error:" + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Logic to logically close every cached statement the borrower left open.
+         */
+        private void reclaimStatements() {
+            handedOut.clear();
+            for(CachedStatement cs : statementCache.values()){
+                if(cs.current != null){
+                    cs.current.closeLogically();
+                }
+            }
+        }
+
+        /**
+         * Logic to physically close every cached statement.
+         */
+        private void closeStatements() {
+            for(CachedStatement cs : statementCache.values()){
+                cs.evict();
+            }
+            statementCache.clear();
+        }
+
+        /**
+         * Logic to call a method on the physical connection.
+         *
+         * @param method to call.
+         * @param args arguments of the method.
+         * @return the result of the method.
+         * @throws Throwable the exception thrown by the method.
+         */
+        private Object invoke(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(raw, args);
+            }
+            catch(InvocationTargetException e){
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Logic to create the handle given to a borrower.
+         * Closing the handle returns this connection to the pool, and the handle is unusable afterwards.
+         *
+         * @return a Connection that delegates to the physical connection.
+         */
+        private Connection newHandle() {
+            leakReported = false;
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean returned = false;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close":
+                            if(!returned){
+                                returned = true;
+                                release(PooledConnection.this);
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned || raw.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Pooled " + raw;
+                    }
+                    if(returned){
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    if(statementCacheSize > 0 && method.getName().equals("prepareStatement") && isCacheable(method)){
+                        return prepareCached((Connection) proxy, method, args);
+                    }
+                    Object result = PooledConnection.this.invoke(method, args);
+                    return result instanceof Statement ? track((Statement) result) : result;
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+    }
+
+    /**
+     * Logic to check if a prepareStatement overload can be cached.
+     * Only the SQL text and int options are supported as the cache key.
+     *
+     * @param method prepareStatement overload.
+     * @return true if every argument after the SQL text is an int.
+     */
+    private static boolean isCacheable(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        for(int i = 1; i < types.length; i++){
+            if(types[i] != int.class){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A prepared statement held in a connection's statement cache.
+     */
+    private static class CachedStatement {
+
+        /**
+         * The physical prepared statement.
+         */
+        private final PreparedStatement raw;
+
+        /**
+         * The handle currently given out, or null if the statement is free.
+         */
+        private StatementHandle current;
+
+        /**
+         * Set once the statement has been pushed out of the cache.
+         */
+        private boolean evicted = false;
+
+        /**
+         * Constructor.
+         *
+         * @param raw physical prepared statement.
+         */
+        private CachedStatement(PreparedStatement raw) {
+            this.raw = raw;
+        }
+
+        /**
+         * Logic to remove the statement from the cache.
+         * It is closed now if free, otherwise when its handle is closed.
+         */
+        private void evict() {
+            evicted = true;
+            if(current == null){
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Logic to physically close the statement.
+         */
+        private void closeQuietly() {
+            try {
+                raw.close();
+            }
+            catch(SQLException e){
+                System.out.println("Error:" + e.getMessage());
+            }
+        }
+
+        /**
+         * Logic to create the handle given to a borrower.
+         *
+         * @param connectionHandle the borrower's connection handle.
+         * @return a PreparedStatement that delegates to the physical statement.
+         */
+        private PreparedStatement newHandle(Connection connectionHandle) {
+            current = new StatementHandle(this, connectionHandle);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, current);
+        }
+    }
+
+    /**
+     * The borrower's view of a cached statement.
+     * Closing it clears the parameters and frees the statement for reuse instead of closing it.
+     */
+    private static class StatementHandle implements InvocationHandler {
+
+        /**
+         * The cached statement behind this handle.
+         */
+        private final CachedStatement cached;
+
+        /**
+         * The connection handle the statement was prepared on.
+         */
+        private final Connection connectionHandle;
+
+        /**
+         * Set once the handle is closed.
+         */
+        private boolean closed = false;
+
+        /**
+         * Constructor.
+         *
+         * @param cached statement behind this handle.
+         * @param connectionHandle connection handle the statement was prepared on.
+         */
+        private StatementHandle(CachedStatement cached, Connection connectionHandle) {
+            this.cached = cached;
+            this.connectionHandle = connectionHandle;
+        }
+
+        /**
+         * Logic to release the statement back to the cache.
+         * Any result set left open is closed so cursors are not leaked.
+         */
+        private void closeLogically() {
+            if(closed){
+                return;
+            }
+            closed = true;
+            try {
+                ResultSet rs = cached.raw.getResultSet();
+                if(rs != null){
+                    rs.close();
+                }
+                cached.raw.clearParameters();
+                cached.raw.clearBatch();
+            }
+            catch(SQLException e){
+                cached.evicted = true;
+            }
+            cached.current = null;
+            if(cached.evicted){
+                cached.closeQuietly();
+            }
+        }
+
+        /**
+         * Logic to route calls to the physical statement, intercepting close.
+         *
+         * @param proxy the statement handle.
+         * @param method being called.
+         * @param args arguments of the method.
+         * @return the result of the method.
+         * @throws Throwable the exception thrown by the method.
+         */
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    closeLogically();
+                    return null;
+                case "isClosed":
+                    return closed || cached.raw.isClosed();
+                case "getConnection":
+                    return connectionHandle;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached " + cached.raw;
+            }
+            if(closed){
+                throw new SQLException("Statement has already been closed.");
+            }
+            try {
+                return method.invoke(cached.raw, args);
+            }
+            catch(InvocationTargetException e){
+                throw e.getCause();
+            }
+        }
+    }
+}
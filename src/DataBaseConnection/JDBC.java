@@ -7,8 +7,9 @@
 package DataBaseConnection;
 
 
+import interfaces.TransactionWork;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.SQLException;
 
 /**
  * Class to handle the database connection.
@@ -22,21 +23,34 @@ public abstract class JDBC {
     private static final String vendor = ":mysql:";
     private static final String location = "//localhost/";
     private static final String databaseName = "client_schedule";
-    private static final String jdbcUrl = protocol + vendor + location + databaseName + "?connectionTimeZone = SERVER"; // LOCAL
+    private static final String jdbcUrl = protocol + vendor + location + databaseName + "?connectionTimeZone = SERVER&useServerPrepStmts=true&useCursorFetch=true&rewriteBatchedStatements=true"; // LOCAL
     private static final String driver = "com.mysql.cj.jdbc.Driver"; // Driver reference
     private static final String userName = "sqlUser"; // Username
     private static String password = "root"; // Password
 
-    public static Connection connection;  // Connection Interface
+
+    /********
+     * Connection pool settings.
+     */
+    private static final int poolMinSize = 2; // Connections kept open while idle
+    private static final int poolMaxSize = 10; // Most connections open at once
+    private static final long borrowTimeoutMillis = 30_000; // Wait for a free connection
+    private static final long idleTimeoutMillis = 300_000; // Close extra connections idle this long
+    private static final long leakThresholdMillis = 60_000; // Report connections held this long
+    private static final int statementCacheSize = 64; // Prepared statements cached per connection
+
+    private static ConnectionPool pool;  // Shared pool of connections
+    private static final ThreadLocal<Integer> queryTimeoutSeconds = ThreadLocal.withInitial(() -> 0); // Statement time limit of each thread, 0 for none
 
     /**
-     * Open connection for the database.
+     * Open the connection pool for the database.
      */
     public static void openConnection()
     {
         try {
             Class.forName(driver); // Locate Driver
-            connection = DriverManager.getConnection(jdbcUrl, userName, password); // Reference Connection object
+            pool = new ConnectionPool(jdbcUrl, userName, password, poolMinSize, poolMaxSize,
+                    borrowTimeoutMillis, idleTimeoutMillis, leakThresholdMillis, statementCacheSize, JDBC::getQueryTimeout);
             System.out.println("Connection successful!");
         }
         catch(Exception e)
@@ -46,11 +60,87 @@ public abstract class JDBC {
     }
 
     /**
-     * Close the connection for the database.
+     * Borrow a connection from the pool.
+     * The connection must be closed when done with it, which returns it to the pool.
+     *
+     * @return a pooled connection.
+     * @throws SQLException throw if the pool is not open or no connection is available.
+     */
+    public static Connection getConnection() throws SQLException {
+        if(pool == null){
+            throw new SQLException("Connection pool has not been opened.");
+        }
+        return pool.getConnection();
+    }
+
+    /**
+     * Run work inside one transaction on a pooled connection.
+     * The transaction is committed if the work finishes and rolled back if it throws.
+     *
+     * @param work statements to run in the transaction.
+     * @param <T> type of the result.
+     * @return the result of the work.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        try(Connection connection = getConnection()){
+            connection.setAutoCommit(false);
+            try{
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            }
+            catch(SQLException | RuntimeException e){
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Set how long statements prepared by the calling thread may run before the driver cancels them on the server.
+     *
+     * @param seconds time limit of each statement, 0 for no limit.
+     */
+    public static void setQueryTimeout(int seconds) {
+        queryTimeoutSeconds.set(seconds);
+    }
+
+    /**
+     * Get how long statements prepared by the calling thread may run.
+     *
+     * @return time limit of each statement in seconds, 0 for no limit.
+     */
+    public static int getQueryTimeout() {
+        return queryTimeoutSeconds.get();
+    }
+
+    /**
+     * Cancel the statements running on connections a thread has borrowed.
+     *
+     * @param thread that borrowed the connections.
+     */
+    public static void cancelStatements(Thread thread) {
+        if(pool != null){
+            pool.cancelStatements(thread);
+        }
+    }
+
+    /**
+     * Get the pool of connections as a DataSource.
+     *
+     * @return the connection pool.
+     */
+    public static ConnectionPool getDataSource() {
+        return pool;
+    }
+
+    /**
+     * Close the connection pool for the database.
      */
     public static void closeConnection() {
         try {
-            connection.close();
+            pool.close();
             System.out.println("Connection closed!");
         }
         catch(Exception e)
@@ -17,6 +17,8 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import model.*;
+import utilities.AsyncDAO;
+import utilities.ConflictEngine;
 import utilities.TimeManager;
 import java.io.IOException;
 import java.net.URL;
@@ -213,26 +215,63 @@ public class AddAppointmentScreen implements Initializable {
                 if(TimeManager.checkWithinBusinessHours(newStartTS, newEndTS)){
                     System.out.println("Business hours are fine!");
 
-                    // Check for overlapping appointments.
-                    if(Appointment.checkAppointmentOverlaps(Integer.parseInt(newCustomerId),0,newStartTS,newEndTS)){
-                        System.out.println("No Overlaps!!!");
-
-                        // Create the appointment in memory, use ZERO as a placeholder for ID until the object is created in database.
-                        Appointment newAppointment = new Appointment(0,newTitle, newDescription,newLocation,newType, newStartTS,newEndTS, newCreatedTS,createdBy,newCreatedTS,lastUpdatedBy,Integer.parseInt(newCustomerId), Integer.parseInt(newUserId),newContact.getId());
-
-                        // Try to insert the new Appointment into the database.
-                        Appointment.addAppointment(newAppointment);
-
-                        // Return to customer screen
-                        loadAppointmentScreen(actionEvent);
-                    }
-                    else{
-                        Alert alert = new Alert(Alert.AlertType.ERROR);
-                        alert.setTitle("Overlapping Appointments");
-                        alert.setContentText("Appointment schedules cannot overlap. Check your appointments and try again.");
-                        alert.showAndWait();
-                        return;
-                    }
+                    // Check for overlapping appointments of the customer, user and contact in the background.
+                    int customerId = Integer.parseInt(newCustomerId);
+                    int userId = Integer.parseInt(newUserId);
+                    Button saveButton = (Button) actionEvent.getSource();
+                    saveButton.setDisable(true);
+                    Appointment.checkConflicts(customerId, userId, newContact.getId(), 0, newStartTS, newEndTS).whenCompleteAsync((conflicts, checkError) -> {
+                        if(checkError != null){
+                            saveButton.setDisable(false);
+                            System.out.println("Error:" + AsyncDAO.unwrap(checkError).getMessage());
+                            Alert alert = new Alert(Alert.AlertType.ERROR);
+                            alert.setTitle("Something went wrong");
+                            alert.setContentText("Please confirm the user ID and customer ID, then try again.");
+                            alert.showAndWait();
+                            return;
+                        }
+                        if(conflicts == 0){
+                            System.out.println("No Overlaps!!!");
+
+                            // Create the appointment in memory, use ZERO as a placeholder for ID until the object is created in database.
+                            Appointment newAppointment = new Appointment(0,newTitle, newDescription,newLocation,newType, newStartTS,newEndTS, newCreatedTS,createdBy,newCreatedTS,lastUpdatedBy,customerId, userId,newContact.getId());
+
+                            // Insert the new Appointment into the database in the background, keeping the screen responsive.
+                            Appointment.addAppointmentAsync(newAppointment).whenCompleteAsync((added, e) -> {
+                                saveButton.setDisable(false);
+                                if(e != null || !added){
+                                    if(e != null){
+                                        System.out.println("Error:" + AsyncDAO.unwrap(e).getMessage());
+                                    }
+                                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                                    alert.setTitle("Something went wrong");
+                                    alert.setContentText("Please confirm the user ID and customer ID, then try again.");
+                                    alert.showAndWait();
+                                    return;
+                                }
+
+                                // Return to customer screen
+                                try{
+                                    loadAppointmentScreen(actionEvent);
+                                }
+                                catch(IOException ioException){
+                                    ioException.printStackTrace();
+                                }
+                            }, AsyncDAO.fxThread);
+                        }
+                        else{
+                            // Suggest free times in the background, leaving them out if they cannot be found.
+                            Appointment.suggestFreeTimes(customerId, userId, newContact.getId(), 0, newStartTS, newEndTS).whenCompleteAsync((suggestion, e) -> {
+                                saveButton.setDisable(false);
+                                Alert alert = new Alert(Alert.AlertType.ERROR);
+                                alert.setTitle("Overlapping Appointments");
+                                alert.setContentText("Appointment schedules cannot overlap. The " + ConflictEngine.describe(conflicts) + (Integer.bitCount(conflicts) == 1 ? " is" : " are")
+                                        + " already booked at this time. Check your appointments and try again."
+                                        + (e == null ? suggestion : ""));
+                                alert.showAndWait();
+                            }, AsyncDAO.fxThread);
+                        }
+                    }, AsyncDAO.fxThread);
                 }
                 else{
                     // Display error for Appointment not being scheduled during business hours.
@@ -17,11 +17,15 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 import model.Appointment;
+import utilities.AsyncDAO;
 import java.io.IOException;
 import java.net.URL;
-import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.WeekFields;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -200,9 +204,8 @@ public class AppointmentScreen implements Initializable {
      * Logic to delete appointments.
      *
      * @param actionEvent the Delete button action.
-     * @throws SQLException throw if SQL statement fails to resolve.
      */
-    public void onDeleteAppointment(ActionEvent actionEvent) throws SQLException {
+    public void onDeleteAppointment(ActionEvent actionEvent) {
         System.out.println("DELETE Appointment clicked.");
         // Get the selected Customer.
         Appointment selectedAppointment = (Appointment) appointmentTable.getSelectionModel().getSelectedItem();
@@ -223,12 +226,23 @@ public class AppointmentScreen implements Initializable {
                 appointmentScreen_Message_TF.setText(update.updateMessage());
 
 
-                // Delete the appointment from the database and the container of appointments.
-                Appointment.deleteAppointment(selectedAppointment);
-
-                // Set the weekly and monthly views to keep them current.
-                setWeekAppointments();
-                setMonthAppointments();
+                // Delete the appointment from the database in the background, then from the container of appointments.
+                deleteAppointmentBTN.setDisable(true);
+                Appointment.deleteAppointmentAsync(selectedAppointment).whenCompleteAsync((deleted, e) -> {
+                    deleteAppointmentBTN.setDisable(false);
+                    if(e != null){
+                        System.out.println("Error:" + AsyncDAO.unwrap(e).getMessage());
+                        Alert error = new Alert(Alert.AlertType.ERROR);
+                        error.setTitle("Delete Failed");
+                        error.setContentText("The Appointment could not be deleted. Try again.");
+                        error.showAndWait();
+                        return;
+                    }
+
+                    // Set the weekly and monthly views to keep them current.
+                    setWeekAppointments();
+                    setMonthAppointments();
+                }, AsyncDAO.fxThread);
             }
         }
     }
@@ -350,35 +364,41 @@ public class AppointmentScreen implements Initializable {
 
     /**
      *  Logic to fill the ObservableList of appointments for the same month.
+     *
+     *  The month runs from the first day of the current month up to the first day of the next month.
      */
     private static void setMonthAppointments(){
-        monthAppointments.clear();
-        for(Appointment p : Appointment.getAllAppointments()){
-            if(p.getStartDate().toLocalDateTime().getMonthValue() == LocalDateTime.now().getMonthValue()){
-                if(!monthAppointments.contains(p)){
-                    monthAppointments.add(p);
-                }
-            }
-        }
+        LocalDate firstDay = LocalDate.now().withDayOfMonth(1);
+        setAppointmentsBetween(monthAppointments, firstDay, firstDay.plusMonths(1));
     }
 
     /**
      * Logic to fill the ObservableList of appointments for the same week.
      *
-     * Appointments of the same week are defined as occurring within the same 7-day period starting with the first 7 days of the year.
-     * This is done using modulo operations to test that appointment date and current date are in the same 7-day time span.
+     * The week runs for 7 days from the most recent first day of the week of the user's locale.
      */
     private static void setWeekAppointments(){
-        weekAppointments.clear();
-        for(Appointment p : Appointment.getAllAppointments()){
-            double currentWeekOfYear = Math.floor(LocalDateTime.now().getDayOfYear()/7);
-            double appointmentWeek = Math.floor(p.getStartDate().toLocalDateTime().getDayOfYear()/7);
-            if(appointmentWeek == currentWeekOfYear){
-                if(!weekAppointments.contains(p)){
-                    weekAppointments.add(p);
-                }
-            }
-        }
+        DayOfWeek firstDayOfWeek = WeekFields.of(Locale.getDefault()).getFirstDayOfWeek();
+        LocalDate firstDay = LocalDate.now().with(TemporalAdjusters.previousOrSame(firstDayOfWeek));
+        setAppointmentsBetween(weekAppointments, firstDay, firstDay.plusWeeks(1));
+    }
 
+    /**
+     * Logic to fill an ObservableList with the appointments starting within a range of days.
+     *
+     * @param appointments list to fill.
+     * @param from first day of the range, inclusive.
+     * @param to day after the range, exclusive.
+     */
+    private static void setAppointmentsBetween(ObservableList<Appointment> appointments, LocalDate from, LocalDate to){
+        Appointment.lookupAppointmentsBetween(Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay()))
+                .whenCompleteAsync((found, e) -> {
+                    if(e == null){
+                        appointments.setAll(found);
+                    }
+                    else{
+                        System.out.println("Error:" + AsyncDAO.unwrap(e).getMessage());
+                    }
+                }, AsyncDAO.fxThread);
     }
 }
@@ -21,6 +21,7 @@ import model.*;
 import java.io.IOException;
 import java.net.URL;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -208,7 +209,6 @@ public class CustomerScreen implements Initializable {
         System.out.println("DELETE Customer clicked.");
         // Get the selected Customer.
         Customer selectedCustomer = (Customer)customerTable.getSelectionModel().getSelectedItem();
-        TransformedCustomer selectedTransformedCustomer = (TransformedCustomer) customerTable.getSelectionModel().getSelectedItem();
         if(selectedCustomer == null){
             System.out.println("No Customer Selected.");
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -226,14 +226,8 @@ public class CustomerScreen implements Initializable {
                 // Set the Customer Deleted Message
                 customerScreen_Message_TF.setText(update.updateMessage());
 
-                // Delete all appointments for that customer.
-                Appointment.deleteCustomersAppointments(selectedCustomer.getId());
-
-                // Delete the customer from the database and the container of customers.
-                Customer.deleteCustomer(selectedCustomer);
-
-                // Refresh Transformed Customers
-                TransformedCustomer.deleteTransformedCustomer(selectedTransformedCustomer);
+                // Delete the customer and all of their appointments together, from the database and every container.
+                Customer.deleteCustomerAndAppointments(selectedCustomer);
             }
         }
     }
@@ -307,12 +301,13 @@ public class CustomerScreen implements Initializable {
     private String checkApproachingAppointments(){
         ObservableList<Appointment> approachingAppointments = FXCollections.observableArrayList();;
         String message = "";
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime soon = now.plusMinutes(15L);
+        long now = System.currentTimeMillis();
+        long soon = now + Duration.ofMinutes(15L).toMillis();
         for(Appointment p : Appointment.getAllAppointments()){
-            if(p.getStartDate().toLocalDateTime().isAfter(now) && p.getStartDate().toLocalDateTime().isBefore(soon)){
+            if(p.getStart() > now && p.getStart() < soon){
                 approachingAppointments.add(p);
-                message += p.getId() + " " + p.getStartDate().toLocalDateTime().toLocalDate() + " " + p.getStartDate().toLocalDateTime().toLocalTime() + "\n";
+                LocalDateTime start = p.getStartDate().toLocalDateTime();
+                message += p.getId() + " " + start.toLocalDate() + " " + start.toLocalTime() + "\n";
             }
         }
         if(message.isEmpty()){
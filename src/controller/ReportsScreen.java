@@ -5,6 +5,7 @@
  */
 package controller;
 
+import interfaces.ReportSink;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -17,10 +18,12 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextArea;
 import javafx.stage.Stage;
 import model.Report;
+import utilities.AsyncDAO;
+import utilities.ReportSinks;
 import java.io.IOException;
 import java.net.URL;
-import java.sql.SQLException;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A controller class for generating report
@@ -33,6 +36,16 @@ public class ReportsScreen implements Initializable {
      */
     ObservableList<String> reports = FXCollections.observableArrayList();
 
+    /**
+     * The report being generated in the background, null if there is none.
+     */
+    private CompletableFuture<?> pendingReport;
+
+    /**
+     * Number of reports selected so far, used to tell whether a report is still the latest one.
+     */
+    private int reportGeneration = 0;
+
 
     /**
      * A button to go to the customer screen.
@@ -66,6 +79,8 @@ public class ReportsScreen implements Initializable {
                         "Schedule for each contact",
                         "Total number of customer appointments by customer");
         reportScreen_Report_CB.setItems(reports);
+        // Start the reports of totals once per change of the appointments, so the first selection rarely waits on a query.
+        Report.prefetchAll();
     }
 
     /**
@@ -91,19 +106,52 @@ public class ReportsScreen implements Initializable {
 
     /**
      * Logic to select and generate different reports.
+     * The report is generated in the background and shown as it is read, and a report still being generated
+     * is cancelled when another is selected. Reports of totals generated in the last minute are shown from the cache.
      * @param actionEvent the Report combo box selection action.
-     * @throws SQLException throw if SQL statement fails to resolve.
      */
-    public void onSelectReport(ActionEvent actionEvent) throws SQLException {
-        if(reportScreen_Report_CB.getSelectionModel().isSelected(0)){
-            reportScreen_Report_TA.setText(Report.getCustomerByTypeMonthReport());
+    public void onSelectReport(ActionEvent actionEvent) {
+        int selected = reportScreen_Report_CB.getSelectionModel().getSelectedIndex();
+        if(selected < 0 || selected > 2){
+            return;
         }
-        else if(reportScreen_Report_CB.getSelectionModel().isSelected(1)){
-            reportScreen_Report_TA.setText(Report.getContactSchedule());
+
+        if(pendingReport != null){
+            pendingReport.cancel(true);
         }
-        else if(reportScreen_Report_CB.getSelectionModel().isSelected(2)){
-            reportScreen_Report_TA.setText(Report.getCustomerTotalAppointmentTime());
+        int generation = ++reportGeneration;
+
+        // Totals kept in memory answer these reports at once, without a query.
+        if(selected != 1 && Report.isServedFromMemory()){
+            pendingReport = null;
+            StringBuilder text = new StringBuilder();
+            if(selected == 0){
+                Report.writeCustomerByTypeMonthReportFromMemory(ReportSinks.collect(text));
+            }
+            else{
+                Report.writeCustomerTotalAppointmentTimeFromMemory(ReportSinks.collect(text));
+            }
+            reportScreen_Report_TA.setText(text.toString());
+            return;
         }
+
+        reportScreen_Report_TA.clear();
+
+        // The sink only appends while this report is still the one wanted.
+        ReportSink sink = ReportSinks.textArea(reportScreen_Report_TA, () -> reportGeneration == generation);
+        // A report of totals generated recently, or still being generated, is shared instead of queried again.
+        pendingReport = Report.writeReport(selected, sink);
+        pendingReport.whenCompleteAsync((done, e) -> {
+            // Ignore a report that was replaced by a newer selection.
+            if(reportGeneration != generation){
+                return;
+            }
+            pendingReport = null;
+            if(e != null){
+                System.out.println("Error:" + AsyncDAO.unwrap(e).getMessage());
+                reportScreen_Report_TA.appendText("\nThe report could not be finished. Try again.");
+            }
+        }, AsyncDAO.fxThread);
     }
 
     /**
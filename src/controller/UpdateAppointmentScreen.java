@@ -16,6 +16,8 @@ import javafx.scene.control.*;
 import javafx.stage.Stage;
 import model.Appointment;
 import model.Contact;
+import utilities.AsyncDAO;
+import utilities.ConflictEngine;
 import utilities.TimeManager;
 import java.io.IOException;
 import java.net.URL;
@@ -250,6 +252,9 @@ public class UpdateAppointmentScreen implements Initializable {
             // Get created Timestamp.
             Timestamp newCreatedTS = updatedAppointment.getCreatedDate();
 
+            // Stamp the edit with the current time, so delta sync on other clients picks it up.
+            Timestamp newLastUpdateTS = TimeManager.now();
+
             // Retrieve the created_by.
             String createdBy = updatedAppointment.getCreatedBy();
 
@@ -262,26 +267,63 @@ public class UpdateAppointmentScreen implements Initializable {
                 if(TimeManager.checkWithinBusinessHours(newStartTS, newEndTS)) {
                     System.out.println("Business hours are fine!");
 
-                    // Check for overlapping appointments.
-                    if(Appointment.checkAppointmentOverlaps(Integer.parseInt(newCustomerId),updatedAppointment.getId(),newStartTS,newEndTS)) {
-                        System.out.println("No Overlaps!!!");
-
-                        // Create the appointment in memory, use ZERO as a placeholder for ID until the object is created in database.
-                        Appointment newAppointment = new Appointment(updatedAppointment.getId(), newTitle, newDescription, newLocation, newType, newStartTS, newEndTS, newCreatedTS, createdBy, newCreatedTS, lastUpdatedBy,  Integer.parseInt(newCustomerId), Integer.parseInt(newUserId), newContact.getId());
-
-                        // Try to insert the new Appointment into the database.
-                        Appointment.updateAppointment(newAppointment);
-
-                        // Return to customer screen
-                        loadAppointmentScreen(actionEvent);
-                    }
-                    else{
-                        Alert alert = new Alert(Alert.AlertType.ERROR);
-                        alert.setTitle("Overlapping Appointments");
-                        alert.setContentText("Appointment schedules cannot overlap. Check your appointments and try again.");
-                        alert.showAndWait();
-                        return;
-                    }
+                    // Check for overlapping appointments of the customer, user and contact in the background.
+                    int customerId = Integer.parseInt(newCustomerId);
+                    int userId = Integer.parseInt(newUserId);
+                    Button saveButton = (Button) actionEvent.getSource();
+                    saveButton.setDisable(true);
+                    Appointment.checkConflicts(customerId, userId, newContact.getId(), updatedAppointment.getId(), newStartTS, newEndTS).whenCompleteAsync((conflicts, checkError) -> {
+                        if(checkError != null){
+                            saveButton.setDisable(false);
+                            System.out.println("Error:" + AsyncDAO.unwrap(checkError).getMessage());
+                            Alert alert = new Alert(Alert.AlertType.ERROR);
+                            alert.setTitle("Something went wrong");
+                            alert.setContentText("Please confirm the user ID and customer ID, then try again.");
+                            alert.showAndWait();
+                            return;
+                        }
+                        if(conflicts == 0) {
+                            System.out.println("No Overlaps!!!");
+
+                            // Create the appointment in memory, use ZERO as a placeholder for ID until the object is created in database.
+                            Appointment newAppointment = new Appointment(updatedAppointment.getId(), newTitle, newDescription, newLocation, newType, newStartTS, newEndTS, newCreatedTS, createdBy, newLastUpdateTS, lastUpdatedBy, customerId, userId, newContact.getId());
+
+                            // Update the Appointment in the database in the background, keeping the screen responsive.
+                            Appointment.updateAppointmentAsync(newAppointment).whenCompleteAsync((updated, e) -> {
+                                saveButton.setDisable(false);
+                                if(e != null || !updated){
+                                    if(e != null){
+                                        System.out.println("Error:" + AsyncDAO.unwrap(e).getMessage());
+                                    }
+                                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                                    alert.setTitle("Something went wrong");
+                                    alert.setContentText("Please confirm the user ID and customer ID, then try again.");
+                                    alert.showAndWait();
+                                    return;
+                                }
+
+                                // Return to customer screen
+                                try{
+                                    loadAppointmentScreen(actionEvent);
+                                }
+                                catch(IOException ioException){
+                                    ioException.printStackTrace();
+                                }
+                            }, AsyncDAO.fxThread);
+                        }
+                        else{
+                            // Suggest free times in the background, leaving them out if they cannot be found.
+                            Appointment.suggestFreeTimes(customerId, userId, newContact.getId(), updatedAppointment.getId(), newStartTS, newEndTS).whenCompleteAsync((suggestion, e) -> {
+                                saveButton.setDisable(false);
+                                Alert alert = new Alert(Alert.AlertType.ERROR);
+                                alert.setTitle("Overlapping Appointments");
+                                alert.setContentText("Appointment schedules cannot overlap. The " + ConflictEngine.describe(conflicts) + (Integer.bitCount(conflicts) == 1 ? " is" : " are")
+                                        + " already booked at this time. Check your appointments and try again."
+                                        + (e == null ? suggestion : ""));
+                                alert.showAndWait();
+                            }, AsyncDAO.fxThread);
+                        }
+                    }, AsyncDAO.fxThread);
                 }
                 else{
                     // Display error for Appointment not being scheduled during business hours.
@@ -19,11 +19,11 @@ import model.Country;
 import model.Customer;
 import model.FirstLevelDivision;
 import model.TransformedCustomer;
+import utilities.TimeManager;
 import java.io.IOException;
 import java.net.URL;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.time.*;
 import java.util.ResourceBundle;
 
 /**
@@ -135,20 +135,14 @@ public class UpdateCustomerScreen implements Initializable {
             int id = updatedCustomer.getId();
             // Keep Date Created when updating;
 
-            // Calculate timestamp
-            Timestamp updatedTS = Timestamp.valueOf(LocalDateTime.now());
-            LocalDateTime updatedLDT = updatedTS.toLocalDateTime();
-            ZonedDateTime updatedZDT = updatedLDT.atZone(ZoneId.of(ZoneId.systemDefault().toString()));
-            ZonedDateTime updatedZDT_UTC = updatedZDT.withZoneSameInstant(ZoneId.of("UTC"));
-            LocalDateTime updatedLDT_UTC = updatedZDT_UTC.toLocalDateTime();
-
-            Timestamp convertedTS = Timestamp.valueOf(updatedLDT_UTC);
+            // Calculate timestamp, stored as UTC by CustomerDAO
+            Timestamp updatedTS = TimeManager.now();
 
             // Retrieve the lastUpdatedBy.
             String lastUpdatedBy = LoginScreen.getCurrentUser().getName();
 
             // Create updated customer
-            Customer newerCustomer = new Customer(id, newName,newAddress,newPostalCode,newPhoneNumber, updatedCustomer.getCreatedDate(),updatedCustomer.getCreatedBy(),convertedTS,lastUpdatedBy,fld.getId());
+            Customer newerCustomer = new Customer(id, newName,newAddress,newPostalCode,newPhoneNumber, updatedCustomer.getCreatedDate(),updatedCustomer.getCreatedBy(),updatedTS,lastUpdatedBy,fld.getId());
 
             // Insert Customer into the database
             Customer.updateCustomer(newerCustomer);
@@ -0,0 +1,33 @@
+/**
+ * A functional interface for receiving the text of a report as it is generated.
+ *
+ * @author Kevin Miller
+ */
+
+
+
+package interfaces;
+
+/**
+ * A functional interface for receiving the text of a report as it is generated.
+ */
+public interface ReportSink extends AutoCloseable {
+
+    /**
+     * Interface method to be implemented to take the next piece of a report.
+     * The chunk may be reused after the call returns, so it must be copied if it is kept.
+     *
+     * @param chunk next piece of the report.
+     */
+    void write(CharSequence chunk);
+
+    /**
+     * Interface method to be implemented to finish the report, such as closing a file. Does nothing by default.
+     */
+    @Override
+    default void close(){
+    }
+
+
+
+}
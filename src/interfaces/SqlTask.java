@@ -0,0 +1,30 @@
+/**
+ * A functional interface for database work that can be run off the JavaFX application thread.
+ *
+ * @author Kevin Miller
+ */
+
+
+
+package interfaces;
+
+import java.sql.SQLException;
+
+/**
+ * A functional interface for database work that can be run off the JavaFX application thread.
+ *
+ * @param <T> type of the result.
+ */
+public interface SqlTask<T> {
+
+    /**
+     * Interface method to be implemented with the database work to run.
+     *
+     * @return the result of the work.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    T run() throws SQLException;
+
+
+
+}
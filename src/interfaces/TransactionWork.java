@@ -0,0 +1,32 @@
+/**
+ * A functional interface for database work that runs inside one transaction.
+ *
+ * @author Kevin Miller
+ */
+
+
+
+package interfaces;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A functional interface for database work that runs inside one transaction.
+ *
+ * @param <T> type of the result.
+ */
+public interface TransactionWork<T> {
+
+    /**
+     * Interface method to be implemented with the statements of the transaction.
+     *
+     * @param connection to run every statement of the transaction on.
+     * @return the result of the work.
+     * @throws SQLException throw if SQL statement fails to resolve, which rolls the transaction back.
+     */
+    T run(Connection connection) throws SQLException;
+
+
+
+}
@@ -0,0 +1,102 @@
+/**
+ *  The Export Job Class runs an export from the command line, such as from a nightly analytics job,
+ *  without starting the application window.
+ *
+ *  @author Kevin Miller
+ */
+
+package main;
+
+import DataBaseConnection.JDBC;
+import utilities.ExportDAO;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * The entry point for exports.
+ */
+public class ExportJob {
+
+    /**
+     * Usage printed when the arguments are not understood.
+     */
+    private static final String usage = "Usage: ExportJob <appointments|customers|contact-schedule|customer-total-time> <csv|columnar> <file>"
+            + "\nThe contact-schedule and customer-total-time reports are exported as csv only.";
+
+    /**
+     * Start Point.
+     * Responsible for opening the Java Database Connection, running the export and closing the Java Database Connection.
+     *
+     * @param args the table or report, the format and the file to write.
+     */
+    public static void main(String[] args) {
+        if(args.length != 3){
+            System.out.println(usage);
+            System.exit(2);
+        }
+
+        JDBC.openConnection();
+        try{
+            long start = System.nanoTime();
+            long rows = export(args[0], args[1], Path.of(args[2]));
+            System.out.println("Exported " + rows + " rows to " + args[2] + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+            System.out.println(usage);
+            System.exit(2);
+        }
+        catch(SQLException | IOException e){
+            System.out.println("Error:" + e.getMessage());
+            System.exit(1);
+        }
+        finally{
+            JDBC.closeConnection();
+        }
+    }
+
+    /**
+     * Logic to run the export named by the arguments.
+     *
+     * @param source table or report to export.
+     * @param format csv or columnar.
+     * @param file to write.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    private static long export(String source, String format, Path file) throws SQLException, IOException {
+        boolean columnar;
+        switch(format){
+            case "csv":
+                columnar = false;
+                break;
+            case "columnar":
+                columnar = true;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+
+        switch(source){
+            case "appointments":
+                return columnar ? ExportDAO.appointmentsToColumnar(file) : ExportDAO.appointmentsToCsv(file);
+            case "customers":
+                return columnar ? ExportDAO.customersToColumnar(file) : ExportDAO.customersToCsv(file);
+            case "contact-schedule":
+                if(!columnar){
+                    return ExportDAO.contactScheduleToCsv(file);
+                }
+                break;
+            case "customer-total-time":
+                if(!columnar){
+                    return ExportDAO.customerTotalTimeToCsv(file);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown table or report: " + source);
+        }
+        throw new IllegalArgumentException("The " + source + " report can only be exported as csv.");
+    }
+}
@@ -13,14 +13,21 @@
 package main;
 
 import DataBaseConnection.JDBC;
+import interfaces.SqlTask;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 import model.*;
+import utilities.AsyncDAO;
+import utilities.DeltaSync;
+import utilities.ReferenceSnapshot;
 import java.io.FileNotFoundException;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * The entry point for the application.
@@ -38,6 +45,21 @@ public class Main extends Application {
         stage.setTitle("Scheduling App");
         stage.setScene(new Scene(root, 900, 600));
         stage.show();
+
+        // Load the rest of the appointments now that the window is up, telling the user if the database cannot be reached.
+        Appointment.loadRemainingAppointmentsInBackground(e -> {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Appointments still loading");
+            alert.setContentText("Some appointments could not be loaded and will be retried: " + e.getMessage()
+                    + "\nAppointments are checked against the database until loading finishes.");
+            alert.show();
+        });
+
+        // Make sure the reference tables read from the snapshot are still current.
+        ReferenceSnapshot.validateInBackground();
+
+        // Keep appointments and customers current with changes made by other clients.
+        DeltaSync.start();
     }
 
     /**
@@ -53,14 +75,32 @@ public class Main extends Application {
         JDBC.openConnection();
 
         // Load all objects from database into the application.
-        User.setAllUsers();
-        Customer.setAllCustomers();
-        Appointment.setAllAppointments();
-        Contact.setAllContacts();
-        FirstLevelDivision.setAllFirstLevelDivisions();
-        Country.setAllCountries();
-        TransformedCustomer.setAllTransformedCustomers();
-
+        // Independent tables load at the same time on their own pooled connections.
+        long bootStart = System.nanoTime();
+        CompletableFuture<Void> users = loadStage("users", () -> { User.setAllUsers(); return null; });
+        CompletableFuture<Void> customers = loadStage("customers", () -> { Customer.setAllCustomers(); return null; });
+        CompletableFuture<Void> appointments = loadStage("appointments", () -> { Appointment.setFirstAppointmentPage(); return null; });
+        // Countries, divisions and contacts come from the local snapshot when there is one.
+        CompletableFuture<Void> referenceTables = loadStage("countries, divisions and contacts", () -> {
+            System.out.println(ReferenceSnapshot.load() ? "Reference tables read from snapshot" : "Reference tables read from database");
+            return null;
+        });
+
+        // Transformed customers join customers to their division and country, so only wait on those.
+        CompletableFuture<Void> transformedCustomers = CompletableFuture.allOf(customers, referenceTables)
+                .thenCompose(ready -> loadStage("transformed customers", () -> { TransformedCustomer.setAllTransformedCustomers(); return null; }));
+
+        try{
+            CompletableFuture.allOf(users, appointments, referenceTables, transformedCustomers).join();
+        }
+        catch(CompletionException e){
+            Throwable cause = AsyncDAO.unwrap(e);
+            if(cause instanceof SQLException){
+                throw (SQLException) cause;
+            }
+            throw e;
+        }
+        System.out.println("Loaded all data in " + elapsedMillis(bootStart) + " ms");
 
         launch(args);
 
@@ -188,6 +228,35 @@ public class Main extends Application {
         }
         */
 
+        DeltaSync.stop();
+        AsyncDAO.shutdown();
         JDBC.closeConnection();
     }
+
+    /**
+     * Logic to run one stage of loading data in the background and print how long it took.
+     * Stages have no query timeout, since a large first load can take longer than any interactive read.
+     *
+     * @param name of the stage.
+     * @param task database work of the stage.
+     * @return CompletableFuture of the stage.
+     */
+    private static CompletableFuture<Void> loadStage(String name, SqlTask<Void> task){
+        return AsyncDAO.submit(() -> {
+            long start = System.nanoTime();
+            task.run();
+            System.out.println("Loaded " + name + " in " + elapsedMillis(start) + " ms");
+            return null;
+        }, AsyncDAO.noTimeout);
+    }
+
+    /**
+     * Get the milliseconds since a time from System.nanoTime.
+     *
+     * @param start time from System.nanoTime.
+     * @return milliseconds since the start.
+     */
+    private static long elapsedMillis(long start){
+        return (System.nanoTime() - start) / 1_000_000;
+    }
 }
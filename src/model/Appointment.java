@@ -7,11 +7,31 @@
 
 package model;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import utilities.AppointmentDAO;
+import utilities.AsyncDAO;
+import utilities.ConflictEngine;
+import utilities.IntHashMap;
+import utilities.ReportAggregates;
+import utilities.StringDictionary;
+import utilities.TimeManager;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  *  A model class for the Appointment
@@ -21,7 +41,53 @@ public class Appointment {
     /**
      * A static ObservableList<Appointment> that contains all of the appointments.
      */
-    private static ObservableList<Appointment> allAppointments = FXCollections.observableArrayList();
+    private static ObservableList<Appointment> allAppointments = tracked(FXCollections.observableArrayList());
+
+    /**
+     * A static IntHashMap<Appointment> that looks up loaded appointments by their ID.
+     */
+    private static IntHashMap<Appointment> appointmentsById = new IntHashMap<>();
+
+    /**
+     * A static TreeSet<Appointment> of the loaded appointments ordered by start, then ID, for date range views.
+     */
+    private static TreeSet<Appointment> appointmentsByStart = new TreeSet<>(
+            Comparator.comparingLong((Appointment p) -> p.indexedStart).thenComparingInt(p -> p.id));
+
+    /**
+     * Totals behind the appointment reports, kept current with the loaded appointments.
+     */
+    private static ReportAggregates reportAggregates = new ReportAggregates();
+
+    /**
+     * Number of appointments read from the database per page.
+     */
+    private static final int appointmentPageSize = 500;
+
+    /**
+     * ID of the last appointment loaded from the database.
+     */
+    private static int lastLoadedAppointmentId = 0;
+
+    /**
+     * True once every appointment has been loaded from the database.
+     */
+    private static volatile boolean allAppointmentsLoaded = false;
+
+    /**
+     * Milliseconds to wait before retrying a page that failed to load.
+     */
+    private static final long initialLoadRetryMillis = 1000;
+
+    /**
+     * Longest wait in milliseconds between retries of a page that keeps failing to load.
+     */
+    private static final long maxLoadRetryMillis = 60_000;
+
+    /**
+     * A static ConflictEngine of appointment times for each customer, user and contact, used for overlap checks.
+     */
+    private static ConflictEngine conflictEngine = new ConflictEngine();
 
 
     /**
@@ -40,26 +106,26 @@ public class Appointment {
     private String description;
 
     /**
-     * location of the appointment.
+     * location of the appointment, as its code in the shared StringDictionary.
      */
-    private String location;
+    private int locationCode;
 
     /**
-     * type of the appointment.
+     * type of the appointment, as its code in the shared StringDictionary.
      */
-    private String type;
+    private int typeCode;
 
 
     /**
-     * start date of the appointment.
+     * start of the appointment in UTC epoch milliseconds.
      */
-    private Timestamp startDate;
+    private long start;
 
 
     /**
-     * end date of the appointment.
+     * end of the appointment in UTC epoch milliseconds.
      */
-    private Timestamp endDate;
+    private long end;
 
 
     /**
@@ -69,9 +135,9 @@ public class Appointment {
 
 
     /**
-     * user who created the appointment.
+     * user who created the appointment, as its code in the shared StringDictionary.
      */
-    private String createdBy;
+    private int createdByCode;
 
 
     /**
@@ -81,9 +147,9 @@ public class Appointment {
 
 
     /**
-     * user who last updated the appointment.
+     * user who last updated the appointment, as its code in the shared StringDictionary.
      */
-    private String lastUpdatedBy;
+    private int lastUpdatedByCode;
 
 
     /**
@@ -102,6 +168,17 @@ public class Appointment {
      */
     private int contactID;
 
+    /**
+     * start of the appointment in epoch milliseconds when it was last indexed.
+     * Kept apart from startDate so the appointment can still be found in appointmentsByStart after startDate changes.
+     */
+    private long indexedStart;
+
+    /**
+     * position of the appointment in the container of appointments, kept current by tracked.
+     */
+    private int position;
+
     /**
      * Constructor.
      *
@@ -124,19 +201,30 @@ public class Appointment {
         this.id = id;
         this.title = title;
         this.description = description;
-        this.location = location;
-        this.type = type;
-        this.startDate = startDate;
-        this.endDate = endDate;
+        this.locationCode = StringDictionary.shared.code(location);
+        this.typeCode = StringDictionary.shared.code(type);
+        this.start = startDate.getTime();
+        this.end = endDate.getTime();
         this.createdDate = createdDate;
-        this.createdBy = createdBy;
+        this.createdByCode = StringDictionary.shared.code(createdBy);
         this.lastUpdate = lastUpdate;
-        this.lastUpdatedBy = lastUpdatedBy;
+        this.lastUpdatedByCode = StringDictionary.shared.code(lastUpdatedBy);
         this.customerID = customerID;
         this.userID = userID;
         this.contactID = contactID;
     }
 
+    /**
+     * Constructor for a search bound in appointmentsByStart.
+     *
+     * @param indexedStart start to search from.
+     * @param id to search from.
+     */
+    private Appointment(long indexedStart, int id){
+        this.indexedStart = indexedStart;
+        this.id = id;
+    }
+
     /**
      * Get the appointment ID.
      *
@@ -198,7 +286,7 @@ public class Appointment {
      * @return Location of Appointment.
      */
     public String getLocation() {
-        return location;
+        return StringDictionary.shared.string(locationCode);
     }
 
     /**
@@ -207,7 +295,7 @@ public class Appointment {
      * @param location of Appointment to be set.
      */
     public void setLocation(String location) {
-        this.location = location;
+        this.locationCode = StringDictionary.shared.code(location);
     }
 
 
@@ -217,7 +305,7 @@ public class Appointment {
      * @return Type of Appointment.
      */
     public String getType() {
-        return type;
+        return StringDictionary.shared.string(typeCode);
     }
 
     /**
@@ -226,16 +314,25 @@ public class Appointment {
      * @param type of Appointment to be set.
      */
     public void setType(String type) {
-        this.type = type;
+        this.typeCode = StringDictionary.shared.code(type);
+    }
+
+    /**
+     * Get the appointment type as its code in the shared StringDictionary, for grouping by type.
+     *
+     * @return Type code of Appointment.
+     */
+    public int getTypeCode() {
+        return typeCode;
     }
 
     /**
-     * Get the appointment start date.
+     * Get the appointment start date, for display and the database.
      *
      * @return Start Date of Appointment.
      */
     public Timestamp getStartDate() {
-        return startDate;
+        return new Timestamp(start);
     }
 
     /**
@@ -244,16 +341,16 @@ public class Appointment {
      * @param startDate of Appointment to be set.
      */
     public void setStartDate(Timestamp startDate) {
-        this.startDate = startDate;
+        this.start = startDate.getTime();
     }
 
     /**
-     * Get the appointment end date.
+     * Get the appointment end date, for display and the database.
      *
      * @return End Date of Appointment.
      */
     public Timestamp getEndDate() {
-        return endDate;
+        return new Timestamp(end);
     }
 
     /**
@@ -262,7 +359,25 @@ public class Appointment {
      * @param endDate of Appointment to be set.
      */
     public void setEndDate(Timestamp endDate) {
-        this.endDate = endDate;
+        this.end = endDate.getTime();
+    }
+
+    /**
+     * Get the appointment start.
+     *
+     * @return Start of Appointment in UTC epoch milliseconds.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Get the appointment end.
+     *
+     * @return End of Appointment in UTC epoch milliseconds.
+     */
+    public long getEnd() {
+        return end;
     }
 
     /**
@@ -289,7 +404,7 @@ public class Appointment {
      * @return Created By of Appointment.
      */
     public String getCreatedBy() {
-        return createdBy;
+        return StringDictionary.shared.string(createdByCode);
     }
 
     /**
@@ -298,7 +413,7 @@ public class Appointment {
      * @param createdBy of Appointment to be set.
      */
     public void setCreatedBy(String createdBy) {
-        this.createdBy = createdBy;
+        this.createdByCode = StringDictionary.shared.code(createdBy);
     }
 
     /**
@@ -325,7 +440,7 @@ public class Appointment {
      * @return Last Updated By of Appointment.
      */
     public String getLastUpdatedBy() {
-        return lastUpdatedBy;
+        return StringDictionary.shared.string(lastUpdatedByCode);
     }
 
     /**
@@ -334,7 +449,7 @@ public class Appointment {
      * @param lastUpdatedBy of Appointment to be set.
      */
     public void setLastUpdatedBy(String lastUpdatedBy) {
-        this.lastUpdatedBy = lastUpdatedBy;
+        this.lastUpdatedByCode = StringDictionary.shared.code(lastUpdatedBy);
     }
 
     /**
@@ -393,13 +508,183 @@ public class Appointment {
     }
 
 
+    /**
+     * Logic to copy every field except the ID from another appointment.
+     *
+     * @param other appointment to copy from.
+     */
+    private void copyFrom(Appointment other) {
+        this.title = other.title;
+        this.description = other.description;
+        this.locationCode = other.locationCode;
+        this.typeCode = other.typeCode;
+        this.start = other.start;
+        this.end = other.end;
+        this.createdDate = other.createdDate;
+        this.createdByCode = other.createdByCode;
+        this.lastUpdate = other.lastUpdate;
+        this.lastUpdatedByCode = other.lastUpdatedByCode;
+        this.customerID = other.customerID;
+        this.userID = other.userID;
+        this.contactID = other.contactID;
+    }
+
+
+    /**
+     * Logic to keep the position of every appointment in a container current as the container changes.
+     * Appending or replacing entries only numbers those entries; inserting or removing entries renumbers the
+     * entries after them, which costs no more than the shift the list itself makes.
+     *
+     * @param appointments container of appointments to track.
+     * @return the same container.
+     */
+    private static ObservableList<Appointment> tracked(ObservableList<Appointment> appointments){
+        number(appointments, 0, appointments.size());
+        appointments.addListener((ListChangeListener<Appointment>) change -> {
+            int renumberFrom = change.getList().size();
+            while(change.next()){
+                if(change.wasPermutated() || change.getAddedSize() != change.getRemovedSize()){
+                    renumberFrom = Math.min(renumberFrom, change.getFrom());
+                }
+                else{
+                    number(change.getList(), change.getFrom(), change.getTo());
+                }
+            }
+            number(change.getList(), renumberFrom, change.getList().size());
+        });
+        return appointments;
+    }
+
+    /**
+     * Logic to set the position of a run of appointments in a container.
+     *
+     * @param appointments container of appointments.
+     * @param from first position to set, inclusive.
+     * @param to last position to set, exclusive.
+     */
+    private static void number(List<? extends Appointment> appointments, int from, int to){
+        for(int i = from; i < to; i++){
+            Appointment p = appointments.get(i);
+            p.position = i;
+        }
+    }
+
     /**
      * Logic to load all Appointments from database into the Appointment container.
      *
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static void setAllAppointments() throws SQLException {
-        allAppointments = AppointmentDAO.select();
+        allAppointments = tracked(AppointmentDAO.select());
+        appointmentsById.clear();
+        appointmentsByStart.clear();
+        conflictEngine.clear();
+        reportAggregates.clear();
+        indexAll(allAppointments);
+        allAppointmentsLoaded = true;
+        Report.invalidate();
+    }
+
+    /**
+     * Logic to load only the first page of Appointments, so the application can start before every appointment is read.
+     * The rest are loaded by loadRemainingAppointmentsInBackground.
+     *
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static void setFirstAppointmentPage() throws SQLException {
+        ObservableList<Appointment> page = AppointmentDAO.selectPage(0, appointmentPageSize);
+        allAppointments = tracked(page);
+        appointmentsById.clear();
+        appointmentsByStart.clear();
+        conflictEngine.clear();
+        reportAggregates.clear();
+        indexAll(page);
+        lastLoadedAppointmentId = page.isEmpty() ? 0 : page.get(page.size() - 1).getId();
+        allAppointmentsLoaded = page.size() < appointmentPageSize;
+        Report.invalidate();
+    }
+
+    /**
+     * Logic to load the remaining pages of Appointments on a background thread.
+     * Each page is added to the container of appointments on the JavaFX application thread.
+     * A page that fails to load is retried, waiting twice as long after each failure up to a minute,
+     * and the first failure of a run of failures is handed to onError on the JavaFX application thread.
+     *
+     * @param onError called with the error when loading a page fails.
+     */
+    public static void loadRemainingAppointmentsInBackground(Consumer<SQLException> onError){
+        if(allAppointmentsLoaded){
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            int afterId = lastLoadedAppointmentId;
+            long retryMillis = initialLoadRetryMillis;
+            boolean failing = false;
+            while(true){
+                try{
+                    ObservableList<Appointment> page = AppointmentDAO.selectPage(afterId, appointmentPageSize);
+                    failing = false;
+                    retryMillis = initialLoadRetryMillis;
+                    if(!page.isEmpty()){
+                        afterId = page.get(page.size() - 1).getId();
+                        Platform.runLater(() -> addLoadedPage(page));
+                    }
+                    if(page.size() < appointmentPageSize){
+                        break;
+                    }
+                }
+                catch(SQLException e){
+                    System.out.println("Error:" + e.getMessage());
+                    if(!failing){
+                        failing = true;
+                        Platform.runLater(() -> onError.accept(e));
+                    }
+                    try{
+                        Thread.sleep(retryMillis);
+                    }
+                    catch(InterruptedException interrupted){
+                        return;
+                    }
+                    retryMillis = Math.min(retryMillis * 2, maxLoadRetryMillis);
+                }
+            }
+            // Reports switch to the in-memory totals now, so the version is bumped once here rather than per page.
+            Platform.runLater(() -> {
+                allAppointmentsLoaded = true;
+                Report.invalidate();
+            });
+        }, "appointment-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Logic to add a page loaded in the background to the container of appointments.
+     * Appointments already present, such as ones added by the user while loading, are skipped.
+     *
+     * @param page Appointments read from the database.
+     */
+    private static void addLoadedPage(ObservableList<Appointment> page){
+        ObservableList<Appointment> added = FXCollections.observableArrayList();
+        for(Appointment p : page){
+            if(!appointmentsById.containsKey(p.getId())){
+                added.add(p);
+            }
+        }
+        indexAll(added);
+        allAppointments.addAll(added);
+        if(!page.isEmpty()){
+            lastLoadedAppointmentId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Check if every appointment has been loaded from the database.
+     *
+     * @return true once the background loading has finished.
+     */
+    public static boolean isAllAppointmentsLoaded(){
+        return allAppointmentsLoaded;
     }
 
     /**
@@ -411,43 +696,318 @@ public class Appointment {
         return allAppointments;
     }
 
+    /**
+     * Logic to search the loaded appointments by their ID.
+     *
+     * @param id of the appointment.
+     * @return the Appointment, or null if it is not loaded.
+     */
+    public static Appointment searchById(int id){
+        return appointmentsById.get(id);
+    }
+
+    /**
+     * Get the totals behind the appointment reports. They cover every appointment once all are loaded.
+     *
+     * @return the report aggregates of the loaded appointments.
+     */
+    public static ReportAggregates getReportAggregates(){
+        return reportAggregates;
+    }
+
+    /**
+     * Logic to get the loaded appointments that start within a range of time, ordered by start.
+     *
+     * @param from earliest start, inclusive.
+     * @param to latest start, exclusive.
+     * @return a read only view of the appointments in the range.
+     */
+    public static Collection<Appointment> getAppointmentsBetween(Timestamp from, Timestamp to){
+        if(!from.before(to)){
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableSortedSet(appointmentsByStart.subSet(
+                new Appointment(from.getTime(), Integer.MIN_VALUE), true,
+                new Appointment(to.getTime(), Integer.MIN_VALUE), false));
+    }
+
+    /**
+     * Logic to get the appointments that start within a range of time, ordered by start.
+     * Uses the in-memory index once every appointment is loaded, and queries the database for the range in the background before that.
+     * Must be called on the JavaFX application thread.
+     *
+     * @param from earliest start, inclusive.
+     * @param to latest start, exclusive.
+     * @return CompletableFuture of the appointments in the range.
+     */
+    public static CompletableFuture<List<Appointment>> lookupAppointmentsBetween(Timestamp from, Timestamp to){
+        if(allAppointmentsLoaded){
+            return CompletableFuture.completedFuture(new ArrayList<>(getAppointmentsBetween(from, to)));
+        }
+        return AsyncDAO.submit(() -> AppointmentDAO.selectByStartRange(from, to)).thenApplyAsync(appointments -> {
+            // Hand back the loaded instance of each appointment so later updates and deletes act on the container's copy.
+            List<Appointment> resolved = new ArrayList<>(appointments.size());
+            for(Appointment p : appointments){
+                Appointment loaded = appointmentsById.get(p.getId());
+                resolved.add(loaded == null ? p : loaded);
+            }
+            return resolved;
+        }, AsyncDAO.fxThread);
+    }
+
+    /**
+     * Logic to add an appointment to the lookup structures.
+     * The appointment must already be in the container of appointments.
+     *
+     * @param appointment to index.
+     */
+    private static void index(Appointment appointment){
+        appointmentsById.put(appointment.getId(), appointment);
+        appointment.indexedStart = appointment.start;
+        appointmentsByStart.add(appointment);
+        conflictEngine.add(appointment.getId(), appointment.getCustomerID(), appointment.getUserID(), appointment.getContactID(),
+                appointment.start, appointment.end);
+        reportAggregates.add(appointment.getId(), appointment.typeCode, appointment.start, appointment.end, appointment.getCustomerID());
+        Report.invalidate();
+    }
+
+    /**
+     * Logic to add many appointments to the lookup structures, such as a loaded page.
+     * The conflict engine sorts and builds their intervals in one pass instead of inserting them one by one.
+     * Cached reports are kept, since a loaded page is already in the database; callers that change the data invalidate them.
+     *
+     * @param appointments to index.
+     */
+    private static void indexAll(List<Appointment> appointments){
+        int count = appointments.size();
+        int[] ids = new int[count];
+        int[] customerIds = new int[count];
+        int[] userIds = new int[count];
+        int[] contactIds = new int[count];
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        for(int i = 0; i < count; i++){
+            Appointment appointment = appointments.get(i);
+            appointmentsById.put(appointment.getId(), appointment);
+            appointment.indexedStart = appointment.start;
+            appointmentsByStart.add(appointment);
+            reportAggregates.add(appointment.getId(), appointment.typeCode, appointment.start, appointment.end, appointment.getCustomerID());
+            ids[i] = appointment.getId();
+            customerIds[i] = appointment.getCustomerID();
+            userIds[i] = appointment.getUserID();
+            contactIds[i] = appointment.getContactID();
+            starts[i] = appointment.start;
+            ends[i] = appointment.end;
+        }
+        conflictEngine.addAll(ids, customerIds, userIds, contactIds, starts, ends);
+    }
+
+    /**
+     * Logic to remove an appointment from the lookup structures.
+     *
+     * @param appointment to remove from the index.
+     */
+    private static void unindex(Appointment appointment){
+        appointmentsById.remove(appointment.getId());
+        appointmentsByStart.remove(appointment);
+        conflictEngine.remove(appointment.getId());
+        reportAggregates.remove(appointment.getId());
+        Report.invalidate();
+    }
 
 
     /**
      * Logic to add appointment to the database and then to the container of appointments.
+     * The ID generated by the database is set on the new appointment.
      *
      * @param newAppointment Appointment to be added to the container and database.
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static void addAppointment(Appointment newAppointment) throws SQLException {
+        addInserted(newAppointment, insert(newAppointment));
+    }
 
-        int affectedRows = AppointmentDAO.insert(newAppointment.getTitle(), newAppointment.getDescription(), newAppointment.getLocation(),
+    /**
+     * Logic to add many appointments to the database in one transaction and then to the container of appointments,
+     * such as for an import. The ID generated by the database is set on each new appointment.
+     *
+     * @param newAppointments Appointments to be added to the container and database.
+     * @throws SQLException throw if SQL statement fails to resolve, in which case none are added.
+     */
+    public static void addAppointments(List<Appointment> newAppointments) throws SQLException {
+        int[] newIds = AppointmentDAO.insertAll(newAppointments);
+        for(int i = 0; i < newIds.length; i++){
+            newAppointments.get(i).setId(newIds[i]);
+        }
+        indexAll(newAppointments);
+        allAppointments.addAll(newAppointments);
+        Report.invalidate();
+    }
+
+    /**
+     * Logic to add appointment to the database in the background, then to the container of appointments on the JavaFX application thread.
+     * The insert has no query timeout, so a slow insert is not reported as failed after it commits.
+     *
+     * @param newAppointment Appointment to be added to the container and database.
+     * @return CompletableFuture of true if the appointment was added.
+     */
+    public static CompletableFuture<Boolean> addAppointmentAsync(Appointment newAppointment){
+        return AsyncDAO.submit(() -> insert(newAppointment), AsyncDAO.noTimeout)
+                .thenApplyAsync(newId -> addInserted(newAppointment, newId), AsyncDAO.fxThread);
+    }
+
+    /**
+     * Logic to insert an appointment into the database.
+     *
+     * @param newAppointment Appointment to be inserted.
+     * @return the generated appointment ID, 0 if nothing was inserted.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    private static int insert(Appointment newAppointment) throws SQLException {
+        return AppointmentDAO.insert(newAppointment.getTitle(), newAppointment.getDescription(), newAppointment.getLocation(),
                 newAppointment.getType(), newAppointment.getStartDate(), newAppointment.getEndDate(), newAppointment.getCreatedDate(),
                 newAppointment.getCreatedBy(), newAppointment.getLastUpdate(), newAppointment.getLastUpdatedBy(), newAppointment.getCustomerID(),
                 newAppointment.getUserID(), newAppointment.getContactID());
+    }
 
-        if(affectedRows > 0){
-            allAppointments = AppointmentDAO.select();
+    /**
+     * Logic to add an inserted appointment to the container of appointments.
+     *
+     * @param newAppointment Appointment that was inserted.
+     * @param newId ID generated by the database.
+     * @return true if the appointment was added.
+     */
+    private static boolean addInserted(Appointment newAppointment, int newId){
+        if(newId > 0){
+            newAppointment.setId(newId);
+            allAppointments.add(newAppointment);
+            index(newAppointment);
+            return true;
         }
+        return false;
     }
 
 
     /**
-     * Logic to update the appointment
+     * Logic to update the appointment.
+     * The loaded appointment with the same ID is patched in place so every view of it stays current.
      *
      * @param updatedAppointment object that contains changes
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static void updateAppointment(Appointment updatedAppointment) throws SQLException{
-        int affectedRows = AppointmentDAO.update(updatedAppointment.getId(), updatedAppointment.getTitle(), updatedAppointment.getDescription(),
+        applyUpdated(updatedAppointment, update(updatedAppointment));
+    }
+
+    /**
+     * Logic to update the appointment in the database in the background, then in the container of appointments on the JavaFX application thread.
+     * The update has no query timeout, so a slow update is not reported as failed after it commits.
+     *
+     * @param updatedAppointment object that contains changes
+     * @return CompletableFuture of true if the appointment was updated.
+     */
+    public static CompletableFuture<Boolean> updateAppointmentAsync(Appointment updatedAppointment){
+        return AsyncDAO.submit(() -> update(updatedAppointment), AsyncDAO.noTimeout)
+                .thenApplyAsync(affectedRows -> applyUpdated(updatedAppointment, affectedRows), AsyncDAO.fxThread);
+    }
+
+    /**
+     * Logic to update an appointment in the database.
+     *
+     * @param updatedAppointment object that contains changes
+     * @return rows updated in the database.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    private static int update(Appointment updatedAppointment) throws SQLException {
+        return AppointmentDAO.update(updatedAppointment.getId(), updatedAppointment.getTitle(), updatedAppointment.getDescription(),
                 updatedAppointment.getLocation(), updatedAppointment.getType(), updatedAppointment.getStartDate(),updatedAppointment.getEndDate(),
                 updatedAppointment.getCreatedDate(),
                 updatedAppointment.getCreatedBy(), updatedAppointment.getLastUpdate(), updatedAppointment.getLastUpdatedBy(), updatedAppointment.getCustomerID(), updatedAppointment.getUserID(),
                 updatedAppointment.getContactID());
+    }
+
+    /**
+     * Logic to apply an updated appointment to the container of appointments.
+     *
+     * @param updatedAppointment object that contains changes
+     * @param affectedRows rows updated in the database.
+     * @return true if the appointment was updated.
+     */
+    private static boolean applyUpdated(Appointment updatedAppointment, int affectedRows){
         if(affectedRows > 0){
-            allAppointments = AppointmentDAO.select();
+            Appointment existing = appointmentsById.get(updatedAppointment.getId());
+            if(existing == null){
+                allAppointments.add(updatedAppointment);
+                index(updatedAppointment);
+            }
+            else{
+                unindex(existing);
+                if(existing != updatedAppointment){
+                    existing.copyFrom(updatedAppointment);
+                }
+                index(existing);
+                // Replace the entry with itself so table views showing it are refreshed.
+                allAppointments.set(existing.position, existing);
+            }
+            return true;
         }
+        return false;
+    }
 
+    /**
+     * Logic to update many appointments in the database in one transaction, then in the container of appointments,
+     * such as for a bulk reschedule. The changed appointments are indexed again in one pass.
+     * Each appointment's Last_Update is set to the current time, so delta sync on other clients picks the changes up.
+     * An ID given more than once is updated with its last change, and an ID with no stored row is skipped.
+     *
+     * @param updatedAppointments objects that contain changes, matched by ID.
+     * @throws SQLException throw if SQL statement fails to resolve, in which case none are updated.
+     */
+    public static void updateAppointments(List<Appointment> updatedAppointments) throws SQLException {
+        // Only the last change to each ID is sent, so an appointment is never indexed twice.
+        IntHashMap<Appointment> latest = new IntHashMap<>(updatedAppointments.size());
+        for(Appointment updatedAppointment : updatedAppointments){
+            latest.put(updatedAppointment.getId(), updatedAppointment);
+        }
+        List<Appointment> distinct = new ArrayList<>(latest.size());
+        Timestamp now = TimeManager.now();
+        for(Appointment updatedAppointment : updatedAppointments){
+            if(latest.get(updatedAppointment.getId()) == updatedAppointment){
+                updatedAppointment.setLastUpdate(now);
+                distinct.add(updatedAppointment);
+            }
+        }
+        int[] rowsAffected = AppointmentDAO.updateEach(distinct);
+        List<Appointment> changed = new ArrayList<>(distinct.size());
+        List<Appointment> added = new ArrayList<>();
+        List<Appointment> patched = new ArrayList<>();
+        for(int i = 0; i < distinct.size(); i++){
+            if(rowsAffected[i] == 0){
+                // No stored row has this ID, so there is nothing to show.
+                continue;
+            }
+            Appointment updatedAppointment = distinct.get(i);
+            Appointment existing = appointmentsById.get(updatedAppointment.getId());
+            if(existing == null){
+                added.add(updatedAppointment);
+                changed.add(updatedAppointment);
+            }
+            else{
+                unindex(existing);
+                if(existing != updatedAppointment){
+                    existing.copyFrom(updatedAppointment);
+                }
+                changed.add(existing);
+                patched.add(existing);
+            }
+        }
+        indexAll(changed);
+        // Replace the patched entries with themselves so table views showing them are refreshed.
+        for(Appointment appointment : patched){
+            allAppointments.set(appointment.position, appointment);
+        }
+        allAppointments.addAll(added);
+        Report.invalidate();
     }
 
     /**
@@ -457,10 +1017,35 @@ public class Appointment {
      *  @throws SQLException throw if SQL statement fails to resolve.
      */
     public static void deleteAppointment(Appointment appointment) throws SQLException {
-        int affectedRows = AppointmentDAO.delete(appointment.getId());
+        removeDeleted(appointment, AppointmentDAO.delete(appointment.getId()));
+    }
+
+    /**
+     * Logic to remove appointment from Database in the background, then from ObservableList on the JavaFX application thread.
+     *
+     * @param appointment to be deleted.
+     * @return CompletableFuture of true if the appointment was deleted.
+     */
+    public static CompletableFuture<Boolean> deleteAppointmentAsync(Appointment appointment){
+        int id = appointment.getId();
+        return AsyncDAO.submit(() -> AppointmentDAO.delete(id), AsyncDAO.noTimeout)
+                .thenApplyAsync(affectedRows -> removeDeleted(appointment, affectedRows), AsyncDAO.fxThread);
+    }
+
+    /**
+     * Logic to remove a deleted appointment from the container of appointments.
+     *
+     * @param appointment that was deleted.
+     * @param affectedRows rows deleted from the database.
+     * @return true if the appointment was removed.
+     */
+    private static boolean removeDeleted(Appointment appointment, int affectedRows){
         if(affectedRows > 0){
             allAppointments.remove(appointment);
+            unindex(appointment);
+            return true;
         }
+        return false;
     }
 
 
@@ -473,10 +1058,68 @@ public class Appointment {
     public static void deleteCustomersAppointments(Integer customerID) throws SQLException {
         int affectedRows = AppointmentDAO.deleteAppointmentsFromCustomer(customerID);
         if(affectedRows > 0){
-            allAppointments = AppointmentDAO.select();
+            removeCustomersAppointments(customerID);
         }
     }
 
+    /**
+     * Logic to remove a customer's appointments from the container of appointments, without touching the database.
+     *
+     * @param customerID of customer whose appointments are removed.
+     */
+    static void removeCustomersAppointments(int customerID){
+        allAppointments.removeIf(p -> {
+            if(p.getCustomerID() == customerID){
+                unindex(p);
+                return true;
+            }
+            return false;
+        });
+    }
+
+
+    /**
+     * Logic to merge an appointment changed in the database into the container of appointments.
+     * A loaded appointment is patched in place, unless it has not changed.
+     *
+     * @param changed Appointment as read from the database.
+     * @return true if the container changed.
+     */
+    public static boolean mergeAppointment(Appointment changed){
+        Appointment existing = appointmentsById.get(changed.getId());
+        if(existing == null){
+            allAppointments.add(changed);
+            index(changed);
+            return true;
+        }
+        if(Objects.equals(existing.getLastUpdate(), changed.getLastUpdate())
+                && existing.lastUpdatedByCode == changed.lastUpdatedByCode){
+            return false;
+        }
+        unindex(existing);
+        existing.copyFrom(changed);
+        index(existing);
+        // Replace the entry with itself so table views showing it are refreshed.
+        allAppointments.set(existing.position, existing);
+        return true;
+    }
+
+    /**
+     * Logic to remove the appointments that are no longer in the database from the container of appointments.
+     *
+     * @param ids of every appointment in the database, in ascending order.
+     * @return true if the container changed.
+     */
+    public static boolean retainAppointments(int[] ids){
+        return allAppointments.removeIf(p -> {
+            if(Arrays.binarySearch(ids, p.getId()) < 0){
+                unindex(p);
+                return true;
+            }
+            return false;
+        });
+    }
+
 
     /**
      * Logic to compare appointment times for overlapping appointments for a specific user.
@@ -485,37 +1128,142 @@ public class Appointment {
      * @param appointmentId ID of appointment.
      * @param startTS Timestamp that represents the start of the appointment.
      * @param endTS Timestamp that represents the end of the appointment.
-     * @return A boolean value representing if parameters pass the "overlap" check. False flags mean there are overlaps and the appointments cannot be created.
-     */
-    public static boolean checkAppointmentOverlaps(Integer customerId, Integer appointmentId,Timestamp startTS, Timestamp endTS){
-        // Get customers appointments
-        ObservableList<Appointment> customersAppointments =  FXCollections.observableArrayList();
-        for(Appointment p : allAppointments){
-            if(p.getCustomerID() == customerId && p.getId() != appointmentId){
-                customersAppointments.add(p);
-            }
-        }
+     * @return CompletableFuture of a boolean value representing if parameters pass the "overlap" check. False flags mean there are overlaps and the appointments cannot be created.
+     */
+    public static CompletableFuture<Boolean> checkAppointmentOverlaps(Integer customerId, Integer appointmentId,Timestamp startTS, Timestamp endTS) {
+        return checkConflicts(customerId, ConflictEngine.NONE, ConflictEngine.NONE, appointmentId, startTS, endTS).thenApply(conflicts -> conflicts == 0);
+    }
 
-        for(Appointment p : customersAppointments){
-            if(startTS.after(p.getStartDate()) && startTS.before(p.getEndDate())){
-                return false;
-            }
-            if(endTS.after(p.getStartDate()) && endTS.before(p.getEndDate())) {
-                return false;
-            }
-            if(startTS.after(p.getStartDate()) && endTS.before(p.getEndDate())){
-                return false;
-            }
-            if(startTS.before(p.getStartDate()) && endTS.after(p.getEndDate())){
-                return false;
+    /**
+     * Logic to find which of an appointment's customer, user and contact are already booked during its time.
+     * The result is ready at once when every appointment is loaded, otherwise the stored appointments are read in the background.
+     *
+     * @param customerId ID of Customer.
+     * @param userId ID of User.
+     * @param contactId ID of Contact.
+     * @param appointmentId ID of the appointment being saved, or 0 for a new appointment.
+     * @param startTS Timestamp that represents the start of the appointment.
+     * @param endTS Timestamp that represents the end of the appointment.
+     * @return CompletableFuture of the ConflictEngine flags of every double booked resource, 0 if the appointment can be saved.
+     */
+    public static CompletableFuture<Integer> checkConflicts(int customerId, int userId, int contactId, int appointmentId, Timestamp startTS, Timestamp endTS) {
+        return conflictEngineFor(new int[]{customerId}, new int[]{userId}, new int[]{contactId}, startTS.getTime(), endTS.getTime())
+                .thenApply(engine -> engine.conflicts(customerId, userId, contactId, startTS.getTime(), endTS.getTime(), appointmentId));
+    }
+
+    /**
+     * Logic to find the earliest free times for an appointment during business hours.
+     * Times start on the quarter hour, matching the minutes offered on the appointment screens.
+     *
+     * @param customerId ID of Customer, or 0 to ignore customers.
+     * @param userId ID of User, or 0 to ignore users.
+     * @param contactId ID of Contact, or 0 to ignore contacts.
+     * @param appointmentId ID of the appointment being rescheduled, or 0 for a new appointment.
+     * @param duration of the appointment.
+     * @param from earliest start of the appointment.
+     * @param to latest end of the appointment.
+     * @param count maximum number of times to return.
+     * @return CompletableFuture of the start Timestamps of the free times, earliest first.
+     */
+    public static CompletableFuture<List<Timestamp>> findFreeSlots(int customerId, int userId, int contactId, int appointmentId,
+                                                                   Duration duration, Timestamp from, Timestamp to, int count) {
+        return conflictEngineFor(new int[]{customerId}, new int[]{userId}, new int[]{contactId}, from.getTime(), to.getTime()).thenApply(engine -> {
+            long[] starts = engine.findFreeSlots(customerId, userId, contactId, appointmentId, duration.toMillis(),
+                    from.getTime(), to.getTime(), count, Duration.ofMinutes(15).toMillis());
+            List<Timestamp> slots = new ArrayList<>(starts.length);
+            for(long start : starts){
+                slots.add(new Timestamp(start));
             }
-            if(startTS.before(p.getStartDate()) && endTS.after(p.getStartDate())){
-                return false;
+            return slots;
+        });
+    }
+
+    /**
+     * Logic to list the next free times for the same length of appointment, for the overlap message of the appointment screens.
+     *
+     * @param customerId ID of Customer.
+     * @param userId ID of User.
+     * @param contactId ID of Contact.
+     * @param appointmentId ID of the appointment being saved, or 0 for a new appointment.
+     * @param startTS Timestamp the user asked for.
+     * @param endTS Timestamp the user asked for.
+     * @return CompletableFuture of a String listing the free times, or an empty String if there are none in the next two weeks.
+     */
+    public static CompletableFuture<String> suggestFreeTimes(int customerId, int userId, int contactId, int appointmentId, Timestamp startTS, Timestamp endTS) {
+        Duration duration = Duration.ofMillis(endTS.getTime() - startTS.getTime());
+        Timestamp searchEnd = Timestamp.valueOf(startTS.toLocalDateTime().plusWeeks(2));
+        return findFreeSlots(customerId, userId, contactId, appointmentId, duration, startTS, searchEnd, 3).thenApply(slots -> {
+            if(slots.isEmpty()){
+                return "";
             }
-            if(startTS.equals(p.getStartDate()) || endTS.equals(p.getEndDate())){
-                return false;
+            DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+            StringBuilder message = new StringBuilder("\n\nNext available times:");
+            for(Timestamp slot : slots){
+                message.append("\n").append(slot.toLocalDateTime().format(format));
             }
+            return message.toString();
+        });
+    }
+
+    /**
+     * Logic to check a batch of proposed appointments against the stored appointments.
+     * Until every appointment is loaded, the stored appointments of all the proposals are read in one query.
+     *
+     * @param proposals appointments to check, with an ID of 0 for new appointments.
+     * @return CompletableFuture of the ConflictEngine flags of each proposal, in the same order.
+     */
+    public static CompletableFuture<int[]> checkConflicts(List<Appointment> proposals) {
+        int size = proposals.size();
+        int[] customerIds = new int[size];
+        int[] userIds = new int[size];
+        int[] contactIds = new int[size];
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        int[] excludeIds = new int[size];
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for(int i = 0; i < size; i++){
+            Appointment p = proposals.get(i);
+            customerIds[i] = p.getCustomerID();
+            userIds[i] = p.getUserID();
+            contactIds[i] = p.getContactID();
+            starts[i] = p.getStart();
+            ends[i] = p.getEnd();
+            excludeIds[i] = p.getId();
+            from = Math.min(from, starts[i]);
+            to = Math.max(to, ends[i]);
         }
-        return true;
+        if(size == 0){
+            return CompletableFuture.completedFuture(new int[0]);
+        }
+        return conflictEngineFor(customerIds, userIds, contactIds, from, to)
+                .thenApply(engine -> engine.conflicts(customerIds, userIds, contactIds, starts, ends, excludeIds));
+    }
+
+    /**
+     * Logic to get the conflict engine to check a time range against.
+     * Once every appointment is loaded this is the in-memory engine, handed back at once so it is only read on the JavaFX application thread.
+     * Until then, pages not loaded yet could hold conflicting appointments, so the appointments of the customers, users
+     * and contacts that overlap the range are read from the database in the background into a new engine instead.
+     *
+     * @param customerIds IDs of Customers, 0 to ignore.
+     * @param userIds IDs of Users, 0 to ignore.
+     * @param contactIds IDs of Contacts, 0 to ignore.
+     * @param from start of the range in epoch milliseconds.
+     * @param to end of the range in epoch milliseconds.
+     * @return CompletableFuture of the engine to check the range against.
+     */
+    private static CompletableFuture<ConflictEngine> conflictEngineFor(int[] customerIds, int[] userIds, int[] contactIds, long from, long to) {
+        if(allAppointmentsLoaded){
+            return CompletableFuture.completedFuture(conflictEngine);
+        }
+        return AsyncDAO.submit(() -> AppointmentDAO.selectOverlapping(customerIds, userIds, contactIds, new Timestamp(from), new Timestamp(to)))
+                .thenApply(stored -> {
+                    ConflictEngine engine = new ConflictEngine();
+                    for(Appointment p : stored){
+                        engine.add(p.getId(), p.getCustomerID(), p.getUserID(), p.getContactID(), p.start, p.end);
+                    }
+                    return engine;
+                });
     }
 }
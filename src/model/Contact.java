@@ -10,8 +10,10 @@
 package model;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import utilities.ContactDAO;
+import utilities.IntHashMap;
 import java.sql.SQLException;
 
 /**
@@ -24,6 +26,11 @@ public class Contact {
      */
     private static ObservableList<Contact> allContacts = FXCollections.observableArrayList();
 
+    /**
+     * A static IntHashMap<Contact> that looks up contacts by ID, kept in sync with allContacts.
+     */
+    private static IntHashMap<Contact> contactsById = new IntHashMap<>();
+
     /**
      * id of contact.
      */
@@ -114,7 +121,47 @@ public class Contact {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static void setAllContacts() throws SQLException {
-        allContacts = ContactDAO.select();
+        setAllContacts(ContactDAO.select());
+    }
+
+    /**
+     * Logic to replace the Contact container with contacts loaded elsewhere, such as from a snapshot.
+     *
+     * @param contacts to hold in the Contact container.
+     */
+    public static void setAllContacts(ObservableList<Contact> contacts){
+        allContacts = contacts;
+        indexContacts();
+        allContacts.addListener(Contact::indexChange);
+    }
+
+    /**
+     * Logic to rebuild the ID lookup of contacts from the container of contacts.
+     */
+    private static void indexContacts(){
+        contactsById.clear();
+        for(Contact c : allContacts){
+            contactsById.put(c.getId(), c);
+        }
+    }
+
+    /**
+     * Logic to apply a change of the container of contacts to the ID lookup of contacts.
+     * Only the contacts removed and added by the change are visited.
+     *
+     * @param change to the container of contacts.
+     */
+    private static void indexChange(ListChangeListener.Change<? extends Contact> change){
+        while(change.next()){
+            for(Contact c : change.getRemoved()){
+                if(contactsById.get(c.getId()) == c){
+                    contactsById.remove(c.getId());
+                }
+            }
+            for(Contact c : change.getAddedSubList()){
+                contactsById.put(c.getId(), c);
+            }
+        }
     }
 
     /**
@@ -134,13 +181,7 @@ public class Contact {
      * @return the Contact that matches the id.
      */
     public static Contact searchById(int id){
-        Contact result = null;
-        for(Contact c: allContacts){
-            if(c.getId() == id){
-                result = c;
-            }
-        }
-        return result;
+        return contactsById.get(id);
     }
 
 
@@ -8,8 +8,11 @@
 package model;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import utilities.CountryDAO;
+import utilities.IntHashMap;
+import utilities.StringDictionary;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 
@@ -23,6 +26,11 @@ public class Country {
      */
     private static ObservableList<Country> allCountries = FXCollections.observableArrayList();
 
+    /**
+     * A static IntHashMap<Country> that looks up countries by ID, kept in sync with allCountries.
+     */
+    private static IntHashMap<Country> countriesById = new IntHashMap<>();
+
 
     /**
      * id of country.
@@ -40,9 +48,9 @@ public class Country {
     private Timestamp createdDate;
 
     /**
-     * created by of country.
+     * created by of country, as its code in the shared StringDictionary.
      */
-    private String createdBy;
+    private int createdByCode;
 
     /**
      * last update of country.
@@ -50,9 +58,9 @@ public class Country {
     private Timestamp lastUpdate;
 
     /**
-     * last updated by of country.
+     * last updated by of country, as its code in the shared StringDictionary.
      */
-    private String lastUpdatedBy;
+    private int lastUpdatedByCode;
 
 
     /**
@@ -69,9 +77,9 @@ public class Country {
         this.id = id;
         this.name = name;
         this.createdDate = createdDate;
-        this.createdBy = createdBy;
+        this.createdByCode = StringDictionary.shared.code(createdBy);
         this.lastUpdate = lastUpdate;
-        this.lastUpdatedBy = lastUpdatedBy;
+        this.lastUpdatedByCode = StringDictionary.shared.code(lastUpdatedBy);
     }
 
     /**
@@ -107,7 +115,7 @@ public class Country {
      * @return createdBy.
      */
     public String getCreatedBy(){
-        return createdBy;
+        return StringDictionary.shared.string(createdByCode);
     }
 
     /**
@@ -125,7 +133,7 @@ public class Country {
      * @return last updated by.
      */
     public String getLastUpdatedBy(){
-        return lastUpdatedBy;
+        return StringDictionary.shared.string(lastUpdatedByCode);
     }
 
     /**
@@ -163,7 +171,7 @@ public class Country {
      * @param createdBy the new Created By to be set.
      */
     public void setCreatedBy(String createdBy){
-        this.createdBy = createdBy;
+        this.createdByCode = StringDictionary.shared.code(createdBy);
     }
 
     /**
@@ -181,7 +189,7 @@ public class Country {
      * @param lastUpdatedBy the new Last Updated By to be set.
      */
     public void setLastUpdatedBy(String lastUpdatedBy){
-        this.lastUpdatedBy = lastUpdatedBy;
+        this.lastUpdatedByCode = StringDictionary.shared.code(lastUpdatedBy);
     }
 
     /**
@@ -190,7 +198,47 @@ public class Country {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static void setAllCountries() throws SQLException {
-        allCountries = CountryDAO.select();
+        setAllCountries(CountryDAO.select());
+    }
+
+    /**
+     * Logic to replace the Country container with countries loaded elsewhere, such as from a snapshot.
+     *
+     * @param countries to hold in the Country container.
+     */
+    public static void setAllCountries(ObservableList<Country> countries){
+        allCountries = countries;
+        indexCountries();
+        allCountries.addListener(Country::indexChange);
+    }
+
+    /**
+     * Logic to rebuild the ID lookup of countries from the container of countries.
+     */
+    private static void indexCountries(){
+        countriesById.clear();
+        for(Country c : allCountries){
+            countriesById.put(c.getId(), c);
+        }
+    }
+
+    /**
+     * Logic to apply a change of the container of countries to the ID lookup of countries.
+     * Only the countries removed and added by the change are visited.
+     *
+     * @param change to the container of countries.
+     */
+    private static void indexChange(ListChangeListener.Change<? extends Country> change){
+        while(change.next()){
+            for(Country c : change.getRemoved()){
+                if(countriesById.get(c.getId()) == c){
+                    countriesById.remove(c.getId());
+                }
+            }
+            for(Country c : change.getAddedSubList()){
+                countriesById.put(c.getId(), c);
+            }
+        }
     }
 
     /**
@@ -209,13 +257,7 @@ public class Country {
      * @return the country that matches the id.
      */
     public static Country filterById(int id){
-        Country result = null;
-        for(Country c : allCountries){
-            if(c.getId() == id){
-                result = c;
-            }
-        }
-        return result;
+        return countriesById.get(id);
     }
 
     /**
@@ -7,11 +7,17 @@
 
 package model;
 
+import DataBaseConnection.JDBC;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import utilities.AppointmentDAO;
 import utilities.CustomerDAO;
+import utilities.IntHashMap;
+import utilities.StringDictionary;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Arrays;
 
 /**
  * A model class for the Customer
@@ -25,6 +31,11 @@ public class Customer {
      */
     private static ObservableList<Customer> allCustomers = FXCollections.observableArrayList();
 
+    /**
+     * A static IntHashMap<Customer> that looks up customers by ID, kept in sync with allCustomers.
+     */
+    private static IntHashMap<Customer> customersById = new IntHashMap<>();
+
 
     /**
      * id of customer.
@@ -52,24 +63,24 @@ public class Customer {
     private String phoneNumber;
 
     /**
-     * created date of customer.
+     * created date of customer in UTC epoch milliseconds.
      */
-    private Timestamp createdDate;
+    private long created;
 
     /**
-     * created by of customer.
+     * created by of customer, as its code in the shared StringDictionary.
      */
-    private String createdBy;
+    private int createdByCode;
 
     /**
-     * last updated of customer.
+     * last updated of customer in UTC epoch milliseconds.
      */
-    private Timestamp lastUpdated;
+    private long lastUpdated;
 
     /**
-     * last updated by of customer.
+     * last updated by of customer, as its code in the shared StringDictionary.
      */
-    private String lastUpdatedBy;
+    private int lastUpdatedByCode;
 
     /**
      * division ID of customer.
@@ -97,10 +108,10 @@ public class Customer {
         this.address = address;
         this.postalCode = postalCode;
         this.phoneNumber = phoneNumber;
-        this.createdDate = createdDate;
-        this.createdBy = createdBy;
-        this.lastUpdated = lastUpdated;
-        this.lastUpdatedBy = lastUpdatedBy;
+        this.created = createdDate.getTime();
+        this.createdByCode = StringDictionary.shared.code(createdBy);
+        this.lastUpdated = lastUpdated.getTime();
+        this.lastUpdatedByCode = StringDictionary.shared.code(lastUpdatedBy);
         this.divisionID = divisionID;
     }
 
@@ -155,7 +166,7 @@ public class Customer {
      * @return Created Date of Customer.
      */
     public Timestamp getCreatedDate() {
-        return createdDate;
+        return new Timestamp(created);
     }
 
     /**
@@ -164,7 +175,7 @@ public class Customer {
      * @return Created By of Customer.
      */
     public String getCreatedBy() {
-        return createdBy;
+        return StringDictionary.shared.string(createdByCode);
     }
 
     /**
@@ -173,7 +184,7 @@ public class Customer {
      * @return Last Updated of Customer.
      */
     public Timestamp getLastUpdated() {
-        return lastUpdated;
+        return new Timestamp(lastUpdated);
     }
 
     /**
@@ -182,7 +193,7 @@ public class Customer {
      * @return Last Updated By of Customer.
      */
     public String getLastUpdatedBy() {
-        return lastUpdatedBy;
+        return StringDictionary.shared.string(lastUpdatedByCode);
     }
 
     /**
@@ -245,7 +256,7 @@ public class Customer {
      * @param createdDate of Customer to be set.
      */
     public void setCreatedDate(Timestamp createdDate) {
-        this.createdDate = createdDate;
+        this.created = createdDate.getTime();
     }
 
     /**
@@ -254,7 +265,7 @@ public class Customer {
      * @param createdBy of Customer to be set.
      */
     public void setCreatedBy(String createdBy) {
-        this.createdBy = createdBy;
+        this.createdByCode = StringDictionary.shared.code(createdBy);
     }
 
     /**
@@ -263,7 +274,7 @@ public class Customer {
      * @param lastUpdated of Customer to be set.
      */
     public void setLastUpdated(Timestamp lastUpdated) {
-        this.lastUpdated = lastUpdated;
+        this.lastUpdated = lastUpdated.getTime();
     }
 
     /**
@@ -272,7 +283,7 @@ public class Customer {
      * @param lastUpdatedBy of Customer to be set.
      */
     public void setLastUpdatedBy(String lastUpdatedBy) {
-        this.lastUpdatedBy = lastUpdatedBy;
+        this.lastUpdatedByCode = StringDictionary.shared.code(lastUpdatedBy);
     }
 
 
@@ -293,7 +304,50 @@ public class Customer {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static void setAllCustomers() throws SQLException {
-        allCustomers = CustomerDAO.select();
+        setAllCustomers(CustomerDAO.select());
+    }
+
+    /**
+     * Logic to replace the Customer container with customers loaded elsewhere.
+     *
+     * @param customers to hold in the Customer container.
+     */
+    private static void setAllCustomers(ObservableList<Customer> customers){
+        allCustomers = customers;
+        customersById.clear();
+        for(Customer c : allCustomers){
+            customersById.put(c.getId(), c);
+        }
+        allCustomers.addListener(Customer::indexChange);
+    }
+
+    /**
+     * Logic to apply a change of the container of customers to the ID lookup of customers.
+     * Only the customers removed and added by the change are visited.
+     *
+     * @param change to the container of customers.
+     */
+    private static void indexChange(ListChangeListener.Change<? extends Customer> change){
+        while(change.next()){
+            for(Customer c : change.getRemoved()){
+                if(customersById.get(c.getId()) == c){
+                    customersById.remove(c.getId());
+                }
+            }
+            for(Customer c : change.getAddedSubList()){
+                customersById.put(c.getId(), c);
+            }
+        }
+    }
+
+    /**
+     * Logic to search for Customers by ID.
+     *
+     * @param id to search the container of customers for.
+     * @return the customer that matches the id, null if there is none.
+     */
+    public static Customer searchById(int id){
+        return customersById.get(id);
     }
 
     /**
@@ -319,7 +373,7 @@ public class Customer {
                 newCustomer.getDivisionID());
 
         if(affectedRows > 0){
-            allCustomers = CustomerDAO.select();
+            setAllCustomers(CustomerDAO.select());
         }
     }
 
@@ -334,7 +388,7 @@ public class Customer {
                 updatedCustomer.getPostalCode(), updatedCustomer.getPhoneNumber(), updatedCustomer.getCreatedDate(),
                 updatedCustomer.getCreatedBy(), updatedCustomer.getLastUpdated(), updatedCustomer.getLastUpdatedBy(), updatedCustomer.getDivisionID());
         if(affectedRows > 0){
-            allCustomers = CustomerDAO.select();
+            setAllCustomers(CustomerDAO.select());
         }
 
     }
@@ -353,4 +407,73 @@ public class Customer {
         }
     }
 
+
+    /**
+     * Logic to remove a customer and all of their appointments from the database in one transaction,
+     * then from the containers of customers, transformed customers and appointments.
+     * If either delete fails, neither is kept and the containers are left unchanged.
+     *
+     * @param customer to be deleted.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static void deleteCustomerAndAppointments(Customer customer) throws SQLException {
+        int customerId = customer.getId();
+        int affectedRows = JDBC.inTransaction(connection -> {
+            AppointmentDAO.deleteAppointmentsFromCustomer(connection, customerId);
+            return CustomerDAO.delete(connection, customerId);
+        });
+        if(affectedRows > 0){
+            Appointment.removeCustomersAppointments(customerId);
+            allCustomers.remove(customersById.get(customerId));
+            TransformedCustomer.deleteTransformedCustomer(customerId);
+        }
+    }
+
+    /**
+     * Logic to merge a customer changed in the database into the container of customers.
+     * A customer that is already loaded is patched in place, unless it has not changed.
+     *
+     * @param changed Customer as read from the database.
+     * @return true if the container changed.
+     */
+    public static boolean mergeCustomer(Customer changed){
+        Customer existing = customersById.get(changed.getId());
+        if(existing == null){
+            allCustomers.add(changed);
+            return true;
+        }
+        if(existing.lastUpdated == changed.lastUpdated && existing.lastUpdatedByCode == changed.lastUpdatedByCode){
+            return false;
+        }
+        existing.copyFrom(changed);
+        return true;
+    }
+
+    /**
+     * Logic to copy every field except the ID from another customer.
+     *
+     * @param other customer to copy from.
+     */
+    private void copyFrom(Customer other){
+        this.name = other.name;
+        this.address = other.address;
+        this.postalCode = other.postalCode;
+        this.phoneNumber = other.phoneNumber;
+        this.created = other.created;
+        this.createdByCode = other.createdByCode;
+        this.lastUpdated = other.lastUpdated;
+        this.lastUpdatedByCode = other.lastUpdatedByCode;
+        this.divisionID = other.divisionID;
+    }
+
+    /**
+     * Logic to remove the customers that are no longer in the database from the container of customers.
+     *
+     * @param ids of every customer in the database, in ascending order.
+     * @return true if the container changed.
+     */
+    public static boolean retainCustomers(int[] ids){
+        return allCustomers.removeIf(c -> Arrays.binarySearch(ids, c.getId()) < 0);
+    }
+
 }
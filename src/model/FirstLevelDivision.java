@@ -8,8 +8,11 @@
 package model;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import utilities.FirstLevelDivisionDAO;
+import utilities.IntHashMap;
+import utilities.StringDictionary;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 
@@ -23,6 +26,11 @@ public class FirstLevelDivision {
      */
     private static ObservableList<FirstLevelDivision> allFirstLevelDivisions = FXCollections.observableArrayList();
 
+    /**
+     * A static IntHashMap<FirstLevelDivision> that looks up first level divisions by ID, kept in sync with allFirstLevelDivisions.
+     */
+    private static IntHashMap<FirstLevelDivision> firstLevelDivisionsById = new IntHashMap<>();
+
     /**
      * id of first level division.
      */
@@ -39,9 +47,9 @@ public class FirstLevelDivision {
     private Timestamp createdDate;
 
     /**
-     * created by of first level division.
+     * created by of first level division, as its code in the shared StringDictionary.
      */
-    private String createdBy;
+    private int createdByCode;
 
 
     /**
@@ -50,9 +58,9 @@ public class FirstLevelDivision {
     private Timestamp lastUpdate;
 
     /**
-     * last updated by of first level division.
+     * last updated by of first level division, as its code in the shared StringDictionary.
      */
-    private String lastUpdatedBy;
+    private int lastUpdatedByCode;
 
     /**
      * country ID of first level division.
@@ -74,9 +82,9 @@ public class FirstLevelDivision {
         this.id = id;
         this.division = division;
         this.createdDate = createdDate;
-        this.createdBy = createdBy;
+        this.createdByCode = StringDictionary.shared.code(createdBy);
         this.lastUpdate = lastUpdate;
-        this.lastUpdatedBy = lastUpdatedBy;
+        this.lastUpdatedByCode = StringDictionary.shared.code(lastUpdatedBy);
         this.countryID = countryID;
     }
 
@@ -113,7 +121,7 @@ public class FirstLevelDivision {
      * @return Created By of FLD
      */
     public String getCreatedBy(){
-        return createdBy;
+        return StringDictionary.shared.string(createdByCode);
     }
 
     /**
@@ -131,7 +139,7 @@ public class FirstLevelDivision {
      * @return Last Updated By of FLD
      */
     public String getLastUpdatedBy(){
-        return lastUpdatedBy;
+        return StringDictionary.shared.string(lastUpdatedByCode);
     }
 
     /**
@@ -176,7 +184,7 @@ public class FirstLevelDivision {
      * @param createdBy of FLD to be set.
      */
     public void setCreatedBy(String createdBy) {
-        this.createdBy = createdBy;
+        this.createdByCode = StringDictionary.shared.code(createdBy);
     }
 
     /**
@@ -194,7 +202,7 @@ public class FirstLevelDivision {
      * @param lastUpdatedBy of FLD to be set.
      */
     public void setLastUpdatedBy(String lastUpdatedBy) {
-        this.lastUpdatedBy = lastUpdatedBy;
+        this.lastUpdatedByCode = StringDictionary.shared.code(lastUpdatedBy);
     }
 
     /**
@@ -214,7 +222,47 @@ public class FirstLevelDivision {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static void setAllFirstLevelDivisions() throws SQLException {
-        allFirstLevelDivisions = FirstLevelDivisionDAO.select();
+        setAllFirstLevelDivisions(FirstLevelDivisionDAO.select());
+    }
+
+    /**
+     * Logic to replace the FirstLevelDivision container with first level divisions loaded elsewhere, such as from a snapshot.
+     *
+     * @param divisions to hold in the FirstLevelDivision container.
+     */
+    public static void setAllFirstLevelDivisions(ObservableList<FirstLevelDivision> divisions){
+        allFirstLevelDivisions = divisions;
+        indexFirstLevelDivisions();
+        allFirstLevelDivisions.addListener(FirstLevelDivision::indexChange);
+    }
+
+    /**
+     * Logic to rebuild the ID lookup of first level divisions from the container of first level divisions.
+     */
+    private static void indexFirstLevelDivisions(){
+        firstLevelDivisionsById.clear();
+        for(FirstLevelDivision fld : allFirstLevelDivisions){
+            firstLevelDivisionsById.put(fld.getId(), fld);
+        }
+    }
+
+    /**
+     * Logic to apply a change of the container of first level divisions to the ID lookup of first level divisions.
+     * Only the first level divisions removed and added by the change are visited.
+     *
+     * @param change to the container of first level divisions.
+     */
+    private static void indexChange(ListChangeListener.Change<? extends FirstLevelDivision> change){
+        while(change.next()){
+            for(FirstLevelDivision fld : change.getRemoved()){
+                if(firstLevelDivisionsById.get(fld.getId()) == fld){
+                    firstLevelDivisionsById.remove(fld.getId());
+                }
+            }
+            for(FirstLevelDivision fld : change.getAddedSubList()){
+                firstLevelDivisionsById.put(fld.getId(), fld);
+            }
+        }
     }
 
     /**
@@ -233,13 +281,7 @@ public class FirstLevelDivision {
      * @return the First Level Division that matches the id.
      */
     public static FirstLevelDivision searchById(int id){
-        FirstLevelDivision result = null;
-        for(FirstLevelDivision fld: allFirstLevelDivisions){
-            if(fld.getId() == id){
-                result = fld;
-            }
-        }
-        return result;
+        return firstLevelDivisionsById.get(id);
 
     }
 
@@ -7,8 +7,15 @@
 
 package model;
 
+import interfaces.ReportSink;
+import utilities.AsyncDAO;
 import utilities.ReportDAO;
 import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A model class for the Report
@@ -16,9 +23,40 @@ import java.sql.SQLException;
 public class Report {
 
     /**
-     * A static String to hold the report.
+     * Report of appointments by type and month.
      */
-    private static String report;
+    public static final int TYPE_MONTH = 0;
+
+    /**
+     * Report of each contact's schedule.
+     */
+    public static final int CONTACT_SCHEDULE = 1;
+
+    /**
+     * Report of the total appointment time of each customer.
+     */
+    public static final int CUSTOMER_TOTAL_TIME = 2;
+
+    /**
+     * Milliseconds a generated report is served from the cache.
+     */
+    private static final long cacheTtlMillis = 60_000;
+
+    /**
+     * Generated reports, and reports still being generated, by report number.
+     * Only the reports of totals are cached; the contact schedule grows with the appointments and is always streamed.
+     */
+    private static final ConcurrentHashMap<Integer, CachedReport> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Version of the appointment data, increased by every change so older cached reports are not served.
+     */
+    private static final AtomicLong dataVersion = new AtomicLong();
+
+    /**
+     * Version of the appointment data the reports were last prefetched for, -1 before the first prefetch.
+     */
+    private static final AtomicLong prefetchedVersion = new AtomicLong(-1);
 
 
     /**
@@ -28,8 +66,7 @@ public class Report {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static String getCustomerByTypeMonthReport() throws SQLException {
-        report = ReportDAO.customersByTypeMonth();
-        return report;
+        return ReportDAO.customersByTypeMonth();
     }
 
     /**
@@ -39,8 +76,7 @@ public class Report {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static String getContactSchedule() throws SQLException {
-        report = ReportDAO.contactSchedule();
-        return report;
+        return ReportDAO.contactSchedule();
     }
 
     /**
@@ -50,7 +86,227 @@ public class Report {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static String getCustomerTotalAppointmentTime() throws SQLException {
-        report = ReportDAO.customerTotalTime();
-        return report;
+        return ReportDAO.customerTotalTime();
+    }
+
+    /**
+     * Logic to write a report to a sink.
+     * The contact schedule is streamed to the sink as it is read, without being kept. The reports of totals are
+     * written from the cache when a current copy is there, and a report already being generated is shared rather
+     * than generated again. Otherwise the report is generated in the background, streamed to the sink as it is read
+     * and cached once it finishes.
+     *
+     * @param report TYPE_MONTH, CONTACT_SCHEDULE or CUSTOMER_TOTAL_TIME.
+     * @param sink to write the report to.
+     * @return CompletableFuture that completes once the report is written. Cancelling it only stops generation started by this call.
+     */
+    public static CompletableFuture<Void> writeReport(int report, ReportSink sink){
+        if(report == CONTACT_SCHEDULE){
+            return AsyncDAO.submit(() -> {
+                ReportDAO.contactSchedule(sink);
+                return null;
+            });
+        }
+        CachedReport cached = cache.get(report);
+        if(cached != null && cached.isCurrent()){
+            if(cached.text.isDone() && !cached.text.isCompletedExceptionally()){
+                sink.write(cached.text.join());
+                return CompletableFuture.completedFuture(null);
+            }
+            return cached.text.thenAccept(sink::write);
+        }
+        CompletableFuture<String> text = generate(report, sink);
+        CompletableFuture<Void> written = text.thenAccept(done -> { });
+        // Cancelling the returned future stops the generation this call started.
+        written.whenComplete((done, e) -> {
+            if(written.isCancelled()){
+                text.cancel(true);
+            }
+        });
+        return written;
+    }
+
+    /**
+     * Logic to generate the reports of totals at the same time on pooled connections, so switching between them is instant.
+     * Runs at most once per version of the appointment data; reports that are cached, being generated or served
+     * from memory are skipped.
+     */
+    public static void prefetchAll(){
+        long version = dataVersion.get();
+        if(isServedFromMemory() || prefetchedVersion.getAndSet(version) == version){
+            return;
+        }
+        for(int report : new int[]{TYPE_MONTH, CUSTOMER_TOTAL_TIME}){
+            CachedReport cached = cache.get(report);
+            if(cached == null || !cached.isCurrent()){
+                generate(report, chunk -> { });
+            }
+        }
+    }
+
+    /**
+     * Logic to stop serving cached reports, called whenever the appointment data changes.
+     */
+    public static void invalidate(){
+        dataVersion.incrementAndGet();
+    }
+
+    /**
+     * Logic to generate a report of totals in the background and cache it.
+     *
+     * @param report TYPE_MONTH or CUSTOMER_TOTAL_TIME.
+     * @param sink to stream the report to as it is generated.
+     * @return CompletableFuture of the whole report.
+     */
+    private static CompletableFuture<String> generate(int report, ReportSink sink){
+        long version = dataVersion.get();
+        CompletableFuture<String> text = AsyncDAO.submit(() -> {
+            StringBuilder collected = new StringBuilder();
+            ReportSink both = chunk -> {
+                collected.append(chunk);
+                sink.write(chunk);
+            };
+            if(report == TYPE_MONTH){
+                ReportDAO.customersByTypeMonth(both);
+            }
+            else{
+                ReportDAO.customerTotalTime(both);
+            }
+            return collected.toString();
+        });
+        CachedReport cached = new CachedReport(text, version);
+        cache.put(report, cached);
+        // A failed or cancelled report is not kept.
+        text.whenComplete((done, e) -> {
+            if(e != null){
+                cache.remove(report, cached);
+            }
+        });
+        return text;
+    }
+
+    /**
+     * Logic to write the customer by month and type report to a sink as it is generated.
+     *
+     * @param sink to write the report to.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static void writeCustomerByTypeMonthReport(ReportSink sink) throws SQLException {
+        ReportDAO.customersByTypeMonth(sink);
+    }
+
+    /**
+     * Logic to write the contact schedule report to a sink as it is generated.
+     *
+     * @param sink to write the report to.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static void writeContactSchedule(ReportSink sink) throws SQLException {
+        ReportDAO.contactSchedule(sink);
+    }
+
+    /**
+     * Logic to write the customer total appointment time report to a sink as it is generated.
+     *
+     * @param sink to write the report to.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static void writeCustomerTotalAppointmentTime(ReportSink sink) throws SQLException {
+        ReportDAO.customerTotalTime(sink);
+    }
+
+    /**
+     * Check if the customer by month and type and customer total appointment time reports can be written from memory,
+     * which is once every appointment is loaded.
+     *
+     * @return true if the in-memory totals cover every appointment.
+     */
+    public static boolean isServedFromMemory(){
+        return Appointment.isAllAppointmentsLoaded();
+    }
+
+    /**
+     * Logic to write the customer by month and type report from the in-memory totals, without a query.
+     * Must be called on the JavaFX application thread.
+     *
+     * @param sink to write the report to.
+     */
+    public static void writeCustomerByTypeMonthReportFromMemory(ReportSink sink){
+        Appointment.getReportAggregates().writeTypeMonthReport(sink);
+    }
+
+    /**
+     * Logic to write the customer total appointment time report from the in-memory totals, without a query.
+     * Must be called on the JavaFX application thread.
+     *
+     * @param sink to write the report to.
+     */
+    public static void writeCustomerTotalAppointmentTimeFromMemory(ReportSink sink){
+        Appointment.getReportAggregates().writeCustomerTotalTimeReport(sink);
+    }
+
+    /**
+     * Logic to count the appointments of each type in each month of a range, from the database.
+     *
+     * @param from first month to count, or null to start with the earliest appointment.
+     * @param to last month to count, or null to end with the latest appointment.
+     * @return the rows ordered by type, then month.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static List<TypeMonthCount> getTypeMonthCounts(YearMonth from, YearMonth to) throws SQLException {
+        return ReportDAO.selectTypeMonthCounts(from, to);
+    }
+
+    /**
+     * Logic to count the appointments of each type in each month of a range, from the in-memory totals.
+     * Must be called on the JavaFX application thread.
+     *
+     * @param from first month to count, or null to start with the earliest appointment.
+     * @param to last month to count, or null to end with the latest appointment.
+     * @return the rows ordered by type, then month.
+     */
+    public static List<TypeMonthCount> getTypeMonthCountsFromMemory(YearMonth from, YearMonth to){
+        return Appointment.getReportAggregates().typeMonthCounts(from, to);
+    }
+
+    /**
+     * A report in the cache.
+     */
+    private static class CachedReport {
+
+        /**
+         * Text of the report, complete once it is generated.
+         */
+        private final CompletableFuture<String> text;
+
+        /**
+         * Version of the appointment data the report was generated from.
+         */
+        private final long version;
+
+        /**
+         * Time the report was started, from System.nanoTime.
+         */
+        private final long startedAt = System.nanoTime();
+
+        /**
+         * Constructor.
+         *
+         * @param text of the report.
+         * @param version of the appointment data.
+         */
+        private CachedReport(CompletableFuture<String> text, long version){
+            this.text = text;
+            this.version = version;
+        }
+
+        /**
+         * Check if the report can still be served.
+         *
+         * @return true if no appointment changed since the report was started and it has not expired.
+         */
+        private boolean isCurrent(){
+            return version == dataVersion.get() && (System.nanoTime() - startedAt) / 1_000_000 < cacheTtlMillis;
+        }
     }
 }
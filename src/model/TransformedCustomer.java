@@ -106,5 +106,14 @@ public class TransformedCustomer extends Customer{
         allTransformedCustomers.remove(tfCustomer);
     }
 
+    /**
+     * Delete the transformed customer of a customer ID.
+     *
+     * @param customerId of the transformed customer to be deleted.
+     */
+    static void deleteTransformedCustomer(int customerId){
+        allTransformedCustomers.removeIf(tf -> tf.getId() == customerId);
+    }
+
 
 }
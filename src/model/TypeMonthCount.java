@@ -0,0 +1,81 @@
+/**
+ * A model class for one row of the appointments by type and month report.
+ *
+ * @author Kevin Miller
+ */
+
+
+package model;
+
+import java.time.YearMonth;
+
+/**
+ * A model class for one row of the appointments by type and month report.
+ */
+public class TypeMonthCount {
+
+    /**
+     * type of the appointments.
+     */
+    private final String type;
+
+    /**
+     * month the appointments start in.
+     */
+    private final YearMonth month;
+
+    /**
+     * number of appointments.
+     */
+    private final int quantity;
+
+
+    /**
+     * Constructor.
+     *
+     * @param type of the appointments.
+     * @param month the appointments start in.
+     * @param quantity of appointments.
+     */
+    public TypeMonthCount(String type, YearMonth month, int quantity){
+        this.type = type;
+        this.month = month;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Get the type of the appointments.
+     *
+     * @return the type.
+     */
+    public String getType(){
+        return type;
+    }
+
+    /**
+     * Get the month the appointments start in.
+     *
+     * @return the month.
+     */
+    public YearMonth getMonth(){
+        return month;
+    }
+
+    /**
+     * Get the number of appointments.
+     *
+     * @return the quantity.
+     */
+    public int getQuantity(){
+        return quantity;
+    }
+
+    /**
+     * Print the row as it appears in the report.
+     *
+     * @return the quantity, type and month of the row.
+     */
+    public String toString(){
+        return quantity + " - " + type + " - " + month;
+    }
+}
@@ -8,11 +8,13 @@
 package model;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import utilities.UserDAO;
 import java.sql.Date;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.HashMap;
 
 /**
  * A model class for the User.
@@ -25,6 +27,11 @@ public class User {
      */
     private static ObservableList<User> allUsers = FXCollections.observableArrayList();
 
+    /**
+     * A static HashMap<String, User> that looks up users by username, kept in sync with allUsers.
+     */
+    private static HashMap<String, User> usersByName = new HashMap<>();
+
 
     /**
      * id of user.
@@ -217,6 +224,37 @@ public class User {
      */
     public static void setAllUsers() throws SQLException {
         allUsers = UserDAO.select();
+        indexUsers();
+        allUsers.addListener(User::indexChange);
+    }
+
+    /**
+     * Logic to rebuild the username lookup of users from the container of users.
+     */
+    private static void indexUsers(){
+        usersByName.clear();
+        for(User u : allUsers){
+            usersByName.put(u.getName(), u);
+        }
+    }
+
+    /**
+     * Logic to apply a change of the container of users to the username lookup of users.
+     * Only the users removed and added by the change are visited.
+     *
+     * @param change to the container of users.
+     */
+    private static void indexChange(ListChangeListener.Change<? extends User> change){
+        while(change.next()){
+            for(User u : change.getRemoved()){
+                if(usersByName.get(u.getName()) == u){
+                    usersByName.remove(u.getName());
+                }
+            }
+            for(User u : change.getAddedSubList()){
+                usersByName.put(u.getName(), u);
+            }
+        }
     }
 
     /**
@@ -236,12 +274,6 @@ public class User {
      * @return User based on search criteria.
      */
     public static User searchUsernames(String username){
-        User user = null;
-        for(User u: allUsers){
-            if(u.getName().equals(username)){
-                user = u;
-            }
-        }
-        return user;
+        return usersByName.get(username);
     }
 }
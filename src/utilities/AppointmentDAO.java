@@ -11,12 +11,26 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.Appointment;
 import java.sql.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  *  An Appointment Data Access Object class for appointments.
  */
 public class AppointmentDAO {
 
+    /**
+     * Number of rows fetched from the server at a time when streaming appointments.
+     */
+    private static final int defaultFetchSize = 1000;
+
+    /**
+     * Number of rows sent to the database at a time by insertAll and updateAll.
+     */
+    public static final int defaultBatchSize = 1000;
+
     /**
      * Logic to insert a new Appointment into the database.
      *
@@ -33,27 +47,188 @@ public class AppointmentDAO {
      * @param customer_ID of appointment.
      * @param user_ID of appointment.
      * @param contact_ID of appointment.
-     * @return the number of rows affected by the query.
+     * @return the generated ID of the new appointment, or 0 if no row was inserted.
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static int insert(String title, String description, String location, String type, Timestamp start, Timestamp end, Timestamp create_Date, String created_By, Timestamp last_Update, String last_Updated_By, int customer_ID, int user_ID, int contact_ID) throws SQLException {
         String sql = "INSERT INTO appointments (Title, Description, Location, Type, Start, End, Create_Date, Created_By, Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) VALUES(?, ?, ?,?, ?,  ?, ?, ?, ?,?,?,?,?)";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, title);
-        ps.setString(2,description);
-        ps.setString(3, location);
-        ps.setString(4, type);
-        ps.setTimestamp(5, start);
-        ps.setTimestamp(6, end);
-        ps.setTimestamp(7, create_Date);
-        ps.setString(8, created_By);
-        ps.setTimestamp(9,  last_Update);
-        ps.setString(10, last_Updated_By);
-        ps.setInt(11, customer_ID);
-        ps.setInt(12, user_ID);
-        ps.setInt(13, contact_ID);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)){
+            ps.setString(1, title);
+            ps.setString(2,description);
+            ps.setString(3, location);
+            ps.setString(4, type);
+            ps.setTimestamp(5, start);
+            ps.setTimestamp(6, end);
+            ps.setTimestamp(7, create_Date);
+            ps.setString(8, created_By);
+            ps.setTimestamp(9,  last_Update);
+            ps.setString(10, last_Updated_By);
+            ps.setInt(11, customer_ID);
+            ps.setInt(12, user_ID);
+            ps.setInt(13, contact_ID);
+            int rowsAffected = ps.executeUpdate();
+            if(rowsAffected == 0){
+                return 0;
+            }
+            try(ResultSet keys = ps.getGeneratedKeys()){
+                return keys.next() ? keys.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Logic to insert many Appointments in one transaction, sending them in batches of defaultBatchSize.
+     *
+     * @param appointments to insert, their IDs are ignored.
+     * @return the generated ID of each appointment, in the same order.
+     * @throws SQLException throw if SQL statement fails to resolve, in which case nothing is inserted.
+     */
+    public static int[] insertAll(List<Appointment> appointments) throws SQLException {
+        return insertAll(appointments, defaultBatchSize);
+    }
+
+
+    /**
+     * Logic to insert many Appointments in one transaction, sending them in batches.
+     * The connection rewrites each batch into multi-row INSERT statements.
+     *
+     * @param appointments to insert, their IDs are ignored.
+     * @param batchSize number of appointments sent to the database at a time, at least 1.
+     * @return the generated ID of each appointment, in the same order.
+     * @throws SQLException throw if SQL statement fails to resolve, in which case nothing is inserted.
+     */
+    public static int[] insertAll(List<Appointment> appointments, int batchSize) throws SQLException {
+        checkBatchSize(batchSize);
+        String sql = "INSERT INTO appointments (Title, Description, Location, Type, Start, End, Create_Date, Created_By, Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) VALUES(?, ?, ?,?, ?,  ?, ?, ?, ?,?,?,?,?)";
+        return JDBC.inTransaction(connection -> {
+            int[] ids = new int[appointments.size()];
+            try(PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)){
+                int sent = 0;
+                for(int i = 0; i < appointments.size(); i++){
+                    bindColumns(ps, appointments.get(i));
+                    ps.addBatch();
+                    if(i + 1 - sent == batchSize || i + 1 == appointments.size()){
+                        ps.executeBatch();
+                        try(ResultSet keys = ps.getGeneratedKeys()){
+                            while(sent <= i && keys.next()){
+                                ids[sent++] = keys.getInt(1);
+                            }
+                        }
+                        if(sent != i + 1){
+                            throw new SQLException("Expected " + (i + 1 - sent) + " more generated keys.");
+                        }
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+
+
+    /**
+     * Logic to update many Appointments in one transaction, sending them in batches of defaultBatchSize.
+     *
+     * @param appointments to update, matched by ID.
+     * @return the number of rows updated.
+     * @throws SQLException throw if SQL statement fails to resolve, in which case nothing is updated.
+     */
+    public static int updateAll(List<Appointment> appointments) throws SQLException {
+        return updateAll(appointments, defaultBatchSize);
+    }
+
+
+    /**
+     * Logic to update many Appointments in one transaction, sending them in batches.
+     *
+     * @param appointments to update, matched by ID.
+     * @param batchSize number of appointments sent to the database at a time, at least 1.
+     * @return the number of rows updated.
+     * @throws SQLException throw if SQL statement fails to resolve, in which case nothing is updated.
+     */
+    public static int updateAll(List<Appointment> appointments, int batchSize) throws SQLException {
+        return Arrays.stream(updateEach(appointments, batchSize)).sum();
+    }
+
+
+    /**
+     * Logic to update many Appointments in one transaction, sending them in batches of defaultBatchSize.
+     *
+     * @param appointments to update, matched by ID.
+     * @return the number of rows updated for each appointment, in the same order.
+     * @throws SQLException throw if SQL statement fails to resolve, in which case nothing is updated.
+     */
+    public static int[] updateEach(List<Appointment> appointments) throws SQLException {
+        return updateEach(appointments, defaultBatchSize);
+    }
+
+
+    /**
+     * Logic to update many Appointments in one transaction, sending them in batches.
+     *
+     * @param appointments to update, matched by ID.
+     * @param batchSize number of appointments sent to the database at a time, at least 1.
+     * @return the number of rows updated for each appointment, in the same order.
+     * @throws SQLException throw if SQL statement fails to resolve, in which case nothing is updated.
+     */
+    public static int[] updateEach(List<Appointment> appointments, int batchSize) throws SQLException {
+        checkBatchSize(batchSize);
+        String sql = "UPDATE appointments SET Title = ?, Description = ?, Location = ?, Type = ?, Start = ?, End = ?, Create_Date = ?, Created_By = ?, Last_Update = ?, Last_Updated_By = ?, Customer_ID = ?, User_ID = ?, Contact_ID = ? WHERE Appointment_ID = ?";
+        return JDBC.inTransaction(connection -> {
+            int[] rowsAffected = new int[appointments.size()];
+            try(PreparedStatement ps = connection.prepareStatement(sql)){
+                int sent = 0;
+                for(int i = 0; i < appointments.size(); i++){
+                    bindColumns(ps, appointments.get(i));
+                    ps.setInt(14, appointments.get(i).getId());
+                    ps.addBatch();
+                    if(i + 1 - sent == batchSize || i + 1 == appointments.size()){
+                        for(int count : ps.executeBatch()){
+                            // A batch that reports SUCCESS_NO_INFO instead of a count is taken as updated.
+                            rowsAffected[sent++] = count == Statement.SUCCESS_NO_INFO ? 1 : count;
+                        }
+                    }
+                }
+            }
+            return rowsAffected;
+        });
+    }
+
+
+    /**
+     * Logic to check a batch size before any statement is sent.
+     *
+     * @param batchSize number of appointments sent to the database at a time.
+     * @throws IllegalArgumentException throw if the batch size is below 1.
+     */
+    private static void checkBatchSize(int batchSize) {
+        if(batchSize < 1){
+            throw new IllegalArgumentException("Batch size must be at least 1, was " + batchSize + ".");
+        }
+    }
+
+
+    /**
+     * Logic to set the column parameters 1 to 13 of an INSERT or UPDATE from an Appointment.
+     *
+     * @param ps statement to bind.
+     * @param appointment to read the columns from.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    private static void bindColumns(PreparedStatement ps, Appointment appointment) throws SQLException {
+        ps.setString(1, appointment.getTitle());
+        ps.setString(2, appointment.getDescription());
+        ps.setString(3, appointment.getLocation());
+        ps.setString(4, appointment.getType());
+        ps.setTimestamp(5, appointment.getStartDate());
+        ps.setTimestamp(6, appointment.getEndDate());
+        ps.setTimestamp(7, appointment.getCreatedDate());
+        ps.setString(8, appointment.getCreatedBy());
+        ps.setTimestamp(9, appointment.getLastUpdate());
+        ps.setString(10, appointment.getLastUpdatedBy());
+        ps.setInt(11, appointment.getCustomerID());
+        ps.setInt(12, appointment.getUserID());
+        ps.setInt(13, appointment.getContactID());
     }
 
     /**
@@ -78,23 +253,25 @@ public class AppointmentDAO {
      */
     public static int update(int id,String title, String description, String location, String type, Timestamp start, Timestamp end, Timestamp create_Date, String created_By, Timestamp last_Update, String last_Updated_By, int customer_ID, int user_ID, int contact_ID) throws SQLException {
         String sql = "UPDATE appointments SET Title = ?, Description = ?, Location = ?, Type = ?, Start = ?, End = ?, Create_Date = ?, Created_By = ?, Last_Update = ?, Last_Updated_By = ?, Customer_ID = ?, User_ID = ?, Contact_ID = ? WHERE Appointment_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, title);
-        ps.setString(2,description);
-        ps.setString(3, location);
-        ps.setString(4, type);
-        ps.setTimestamp(5, start);
-        ps.setTimestamp(6, end);
-        ps.setTimestamp(7, create_Date);
-        ps.setString(8, created_By);
-        ps.setTimestamp(9, last_Update);
-        ps.setString(10, last_Updated_By);
-        ps.setInt(11, customer_ID);
-        ps.setInt(12, user_ID);
-        ps.setInt(13, contact_ID);
-        ps.setInt(14, id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, title);
+            ps.setString(2,description);
+            ps.setString(3, location);
+            ps.setString(4, type);
+            ps.setTimestamp(5, start);
+            ps.setTimestamp(6, end);
+            ps.setTimestamp(7, create_Date);
+            ps.setString(8, created_By);
+            ps.setTimestamp(9, last_Update);
+            ps.setString(10, last_Updated_By);
+            ps.setInt(11, customer_ID);
+            ps.setInt(12, user_ID);
+            ps.setInt(13, contact_ID);
+            ps.setInt(14, id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -107,10 +284,12 @@ public class AppointmentDAO {
      */
     public static int delete(int id) throws SQLException {
         String sql = "DELETE FROM APPOINTMENTS WHERE Appointment_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1,id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setInt(1,id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -122,11 +301,27 @@ public class AppointmentDAO {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static int deleteAppointmentsFromCustomer(int customerId) throws SQLException {
+        try(Connection connection = JDBC.getConnection()){
+            return deleteAppointmentsFromCustomer(connection, customerId);
+        }
+    }
+
+
+    /**
+     * Logic to delete all appointments from a specific customer on a given connection, such as inside a transaction.
+     *
+     * @param connection to run the statement on.
+     * @param customerId to search for when deleting appointments.
+     * @return the number of rows affected by the query.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static int deleteAppointmentsFromCustomer(Connection connection, int customerId) throws SQLException {
         String sql = "DELETE FROM APPOINTMENTS WHERE Customer_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1,customerId);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setInt(1,customerId);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -139,28 +334,275 @@ public class AppointmentDAO {
      */
     public static ObservableList<Appointment> select() throws SQLException {
         ObservableList<Appointment> allAppointments = FXCollections.observableArrayList();
-        String sql = "SELECT * FROM appointments";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next()){
-            int appointmentID = rs.getInt("Appointment_ID");
-            String title = rs.getString("Title");
-            String description = rs.getString("Description");
-            String location = rs.getString("Location");
-            String type = rs.getString("Type");
-            Timestamp start = rs.getTimestamp("Start");
-            Timestamp end = rs.getTimestamp("End");
-            Timestamp createdDate = rs.getTimestamp("Create_Date");
-            String createdBy = rs.getString("Created_By");
-            Timestamp lastUpdate = rs.getTimestamp("Last_Update");
-            String lastUpdatedBy = rs.getString("Last_Updated_By");
-            int customerID = rs.getInt("Customer_ID");
-            int userID = rs.getInt("User_ID");
-            int contactID = rs.getInt("Contact_ID");
-
-            Appointment appointment = new Appointment(appointmentID, title, description ,location ,type, start ,end, createdDate,createdBy,lastUpdate, lastUpdatedBy,customerID,userID,contactID);
-            allAppointments.add(appointment);
-        }
+        selectEach(defaultFetchSize, allAppointments::add);
         return allAppointments;
     }
+
+
+    /**
+     * Logic to stream every Appointment from the database without holding the whole result in memory.
+     * Rows are read through a server side cursor, fetchSize rows at a time.
+     *
+     * @param fetchSize number of rows to fetch from the server at a time.
+     * @param consumer called with each Appointment in ID order.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static void selectEach(int fetchSize, Consumer<Appointment> consumer) throws SQLException {
+        String sql = "SELECT * FROM appointments ORDER BY Appointment_ID";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)){
+            ps.setFetchSize(fetchSize);
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    consumer.accept(fromResultSet(rs));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Logic to select the Appointments changed since a time, for merging into the appointments held in memory.
+     *
+     * @param since earliest Last_Update to select, as stored in the database.
+     * @param consumer called with each changed Appointment.
+     * @return the latest Last_Update selected, or since if nothing changed.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static Timestamp selectUpdatedSince(Timestamp since, Consumer<Appointment> consumer) throws SQLException {
+        String sql = "SELECT * FROM appointments WHERE Last_Update >= ? ORDER BY Last_Update";
+        Timestamp latest = since;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setTimestamp(1, since);
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    latest = rs.getTimestamp("Last_Update");
+                    consumer.accept(fromResultSet(rs));
+                }
+            }
+        }
+        return latest;
+    }
+
+
+    /**
+     * Logic to select the latest Last_Update of the Appointments.
+     *
+     * @return the latest Last_Update as stored in the database, or null if there are none.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static Timestamp selectLatestUpdate() throws SQLException {
+        String sql = "SELECT MAX(Last_Update) FROM appointments";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                rs.next();
+                return rs.getTimestamp(1);
+            }
+        }
+    }
+
+
+    /**
+     * Logic to count the Appointments in the database.
+     *
+     * @return the number of appointments.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static int count() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM appointments";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+
+    /**
+     * Logic to select the ID of every Appointment in the database.
+     *
+     * @return the IDs in ascending order.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static int[] selectIds() throws SQLException {
+        String sql = "SELECT Appointment_ID FROM appointments ORDER BY Appointment_ID";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                int[] ids = new int[64];
+                int n = 0;
+                while(rs.next()){
+                    if(n == ids.length){
+                        ids = Arrays.copyOf(ids, n * 2);
+                    }
+                    ids[n++] = rs.getInt(1);
+                }
+                return Arrays.copyOf(ids, n);
+            }
+        }
+    }
+
+
+    /**
+     * Logic to select one page of Appointments, ordered by ID.
+     * Pages are found by ID rather than by offset, so every page costs the same no matter how deep it is.
+     *
+     * @param afterId ID of the last Appointment of the previous page, 0 for the first page.
+     * @param pageSize maximum number of Appointments to return.
+     * @return ObservableList of the Appointments in the page, empty once every page has been read.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static ObservableList<Appointment> selectPage(int afterId, int pageSize) throws SQLException {
+        ObservableList<Appointment> page = FXCollections.observableArrayList();
+        String sql = "SELECT * FROM appointments WHERE Appointment_ID > ? ORDER BY Appointment_ID LIMIT ?";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)){
+            ps.setInt(1, afterId);
+            ps.setInt(2, pageSize);
+            ps.setFetchSize(Math.min(pageSize, defaultFetchSize));
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    page.add(fromResultSet(rs));
+                }
+            }
+            return page;
+        }
+    }
+
+
+    /**
+     * Logic to select the Appointments starting within a range of time, ordered by start.
+     * The range is compared against the bare Start column so the Start index can be used.
+     *
+     * @param from earliest start, inclusive.
+     * @param to latest start, exclusive.
+     * @return ObservableList of the Appointments in the range.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static ObservableList<Appointment> selectByStartRange(Timestamp from, Timestamp to) throws SQLException {
+        ObservableList<Appointment> appointments = FXCollections.observableArrayList();
+        String sql = "SELECT * FROM appointments WHERE Start >= ? AND Start < ? ORDER BY Start";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setTimestamp(1, from);
+            ps.setTimestamp(2, to);
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    appointments.add(fromResultSet(rs));
+                }
+            }
+            return appointments;
+        }
+    }
+
+
+    /**
+     * Logic to select the appointments of a set of customers, users and contacts that overlap a range of time, in one query.
+     * IDs of 0 are skipped, since IDs start at 1.
+     *
+     * @param customerIds IDs of Customers to match.
+     * @param userIds IDs of Users to match.
+     * @param contactIds IDs of Contacts to match.
+     * @param from start of the range, inclusive.
+     * @param to end of the range, exclusive.
+     * @return the overlapping appointments.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static ObservableList<Appointment> selectOverlapping(int[] customerIds, int[] userIds, int[] contactIds, Timestamp from, Timestamp to) throws SQLException {
+        ObservableList<Appointment> appointments = FXCollections.observableArrayList();
+        int[][] ids = {distinctIds(customerIds), distinctIds(userIds), distinctIds(contactIds)};
+        String[] columns = {"Customer_ID", "User_ID", "Contact_ID"};
+        StringBuilder matches = new StringBuilder();
+        for(int c = 0; c < columns.length; c++){
+            if(ids[c].length > 0){
+                matches.append(matches.length() > 0 ? " OR " : "").append(columns[c]).append(" IN (").append(placeholders(ids[c].length)).append(")");
+            }
+        }
+        if(matches.length() == 0){
+            return appointments;
+        }
+        String sql = "SELECT * FROM appointments WHERE Start < ? AND End > ? AND (" + matches + ")";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setTimestamp(1, to);
+            ps.setTimestamp(2, from);
+            int index = 3;
+            for(int[] columnIds : ids){
+                if(columnIds.length > 0){
+                    // Unused placeholders repeat the last ID, so the statement matches a cached one of the same size.
+                    int slots = placeholderCount(columnIds.length);
+                    for(int i = 0; i < slots; i++){
+                        ps.setInt(index++, columnIds[Math.min(i, columnIds.length - 1)]);
+                    }
+                }
+            }
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    appointments.add(fromResultSet(rs));
+                }
+            }
+            return appointments;
+        }
+    }
+
+    /**
+     * Logic to sort the IDs of a resource and drop repeats and zeros.
+     *
+     * @param ids to clean up.
+     * @return the distinct IDs above 0, in order.
+     */
+    private static int[] distinctIds(int[] ids) {
+        return Arrays.stream(ids).filter(id -> id > 0).sorted().distinct().toArray();
+    }
+
+    /**
+     * Logic to round a number of IDs up to a power of two, so IN lists of similar sizes share one prepared statement.
+     *
+     * @param count number of IDs.
+     * @return the number of placeholders to use.
+     */
+    private static int placeholderCount(int count) {
+        return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    }
+
+    /**
+     * Logic to build the placeholders of an IN list.
+     *
+     * @param count number of IDs.
+     * @return placeholders such as "?,?,?,?".
+     */
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(placeholderCount(count), "?"));
+    }
+
+
+    /**
+     * Logic to build an Appointment from the current row of a result set.
+     *
+     * @param rs result set positioned on an appointments row.
+     * @return the Appointment of the row.
+     * @throws SQLException throw if a column cannot be read.
+     */
+    private static Appointment fromResultSet(ResultSet rs) throws SQLException {
+        int appointmentID = rs.getInt("Appointment_ID");
+        String title = rs.getString("Title");
+        String description = rs.getString("Description");
+        String location = rs.getString("Location");
+        String type = rs.getString("Type");
+        Timestamp start = rs.getTimestamp("Start");
+        Timestamp end = rs.getTimestamp("End");
+        Timestamp createdDate = rs.getTimestamp("Create_Date");
+        String createdBy = rs.getString("Created_By");
+        Timestamp lastUpdate = rs.getTimestamp("Last_Update");
+        String lastUpdatedBy = rs.getString("Last_Updated_By");
+        int customerID = rs.getInt("Customer_ID");
+        int userID = rs.getInt("User_ID");
+        int contactID = rs.getInt("Contact_ID");
+
+        return new Appointment(appointmentID, title, description ,location ,type, start ,end, createdDate,createdBy,lastUpdate, lastUpdatedBy,customerID,userID,contactID);
+    }
 }
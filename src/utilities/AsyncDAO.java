@@ -0,0 +1,157 @@
+/**
+ * An Async DAO class for running database work off the JavaFX application thread.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import DataBaseConnection.JDBC;
+import interfaces.SqlTask;
+import javafx.application.Platform;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * An Async DAO class for running database work off the JavaFX application thread.
+ * Work runs on a bounded pool of daemon threads and is handed back as a CompletableFuture.
+ * Each statement of the work is limited by a query timeout, which the driver enforces on the server.
+ * Cancelling a future cancels the running statements and interrupts the work if it has started, and skips it if it has not.
+ */
+public class AsyncDAO {
+
+    /**
+     * Number of worker threads, matched to the largest number of pooled connections.
+     */
+    private static final int workerCount = 10;
+
+    /**
+     * Seconds each statement of a read may run before the driver cancels it and the future fails with an SQLTimeoutException.
+     */
+    public static final int defaultQueryTimeoutSeconds = 30;
+
+    /**
+     * Query timeout that lets statements run until they finish, for writes whose outcome must be known.
+     */
+    public static final int noTimeout = 0;
+
+    /**
+     * Number used to name the next worker thread.
+     */
+    private static final AtomicInteger workerNumber = new AtomicInteger();
+
+    /**
+     * Executor that runs the database work.
+     */
+    private static final ExecutorService workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+        Thread thread = new Thread(runnable, "dao-worker-" + workerNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Executor that runs on the JavaFX application thread, for applying results to the GUI.
+     */
+    public static final Executor fxThread = Platform::runLater;
+
+    /**
+     * Logic to run database work in the background with the default query timeout.
+     *
+     * @param task database work to run.
+     * @param <T> type of the result.
+     * @return CompletableFuture of the result.
+     */
+    public static <T> CompletableFuture<T> submit(SqlTask<T> task){
+        return submit(task, defaultQueryTimeoutSeconds);
+    }
+
+    /**
+     * Logic to run database work in the background.
+     *
+     * @param task database work to run.
+     * @param queryTimeoutSeconds seconds each statement may run, or noTimeout.
+     * @param <T> type of the result.
+     * @return CompletableFuture of the result.
+     */
+    public static <T> CompletableFuture<T> submit(SqlTask<T> task, int queryTimeoutSeconds){
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // Thread running the work, guarded by itself so a cancel cannot reach the next work on that thread.
+        Thread[] runner = new Thread[1];
+        Future<?> work = workers.submit(() -> {
+            synchronized (runner){
+                runner[0] = Thread.currentThread();
+            }
+            JDBC.setQueryTimeout(queryTimeoutSeconds);
+            try{
+                result.complete(task.run());
+            }
+            catch(Throwable e){
+                result.completeExceptionally(e);
+            }
+            finally{
+                JDBC.setQueryTimeout(noTimeout);
+                synchronized (runner){
+                    runner[0] = null;
+                }
+            }
+        });
+        result.whenComplete((value, e) -> {
+            // Stop the work when the caller gives up on it. The driver ignores interrupts, so the statements are cancelled too.
+            if(e instanceof CancellationException){
+                synchronized (runner){
+                    if(runner[0] != null){
+                        JDBC.cancelStatements(runner[0]);
+                    }
+                }
+                work.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Logic to run database work in the background and handle the outcome on the JavaFX application thread.
+     *
+     * @param task database work to run.
+     * @param onSuccess receives the result on the JavaFX application thread.
+     * @param onError receives the failure on the JavaFX application thread.
+     * @param <T> type of the result.
+     * @return CompletableFuture of the result, which can be cancelled.
+     */
+    public static <T> CompletableFuture<T> submit(SqlTask<T> task, Consumer<T> onSuccess, Consumer<Throwable> onError){
+        CompletableFuture<T> result = submit(task);
+        result.whenCompleteAsync((value, e) -> {
+            if(e == null){
+                onSuccess.accept(value);
+            }
+            else{
+                onError.accept(unwrap(e));
+            }
+        }, fxThread);
+        return result;
+    }
+
+    /**
+     * Logic to find the original failure inside a CompletionException.
+     *
+     * @param e failure of a future.
+     * @return the cause of a CompletionException, otherwise e.
+     */
+    public static Throwable unwrap(Throwable e){
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * Logic to stop the worker threads, interrupting any running work.
+     */
+    public static void shutdown(){
+        workers.shutdownNow();
+    }
+}
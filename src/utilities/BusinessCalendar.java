@@ -0,0 +1,170 @@
+/**
+ * A Business Calendar class holding when the business opens and closes on each day of a range.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * A Business Calendar class holding when the business opens and closes on each day of a range.
+ *
+ * The opening and closing instants of every day are computed once, with the daylight saving time of the business
+ * time zone applied, into two arrays indexed by day. Checking that an interval is within business hours is then
+ * an estimate of the day from the start, at most one correction, and two compares.
+ * Intervals outside the range are checked by converting them through the zone instead.
+ */
+public class BusinessCalendar {
+
+    /**
+     * Milliseconds in a day.
+     */
+    private static final long dayMillis = 24 * 60 * 60 * 1000L;
+
+    /**
+     * Converter of the business time zone.
+     */
+    private final ZoneConverter zone;
+
+    /**
+     * Opening time as milliseconds after midnight.
+     */
+    private final long openMillis;
+
+    /**
+     * Closing time as milliseconds after midnight.
+     */
+    private final long closeMillis;
+
+    /**
+     * Epoch day of the first day in the tables.
+     */
+    private final long firstDay;
+
+    /**
+     * Opening instant of each day in epoch milliseconds.
+     */
+    private final long[] opens;
+
+    /**
+     * Closing instant of each day in epoch milliseconds.
+     */
+    private final long[] closes;
+
+    /**
+     * Constructor.
+     *
+     * @param zone the business hours are kept in.
+     * @param open time of each day, before close.
+     * @param close time of each day.
+     * @param firstDay first day of the tables.
+     * @param days number of days in the tables.
+     */
+    public BusinessCalendar(ZoneId zone, LocalTime open, LocalTime close, LocalDate firstDay, int days){
+        this.zone = ZoneConverter.of(zone);
+        this.openMillis = open.toSecondOfDay() * 1000L;
+        this.closeMillis = close.toSecondOfDay() * 1000L;
+        this.firstDay = firstDay.toEpochDay();
+        opens = new long[days];
+        closes = new long[days];
+        for(int i = 0; i < days; i++){
+            long midnight = (this.firstDay + i) * dayMillis;
+            opens[i] = this.zone.toInstant(midnight + openMillis);
+            closes[i] = this.zone.toInstant(midnight + closeMillis);
+        }
+    }
+
+    /**
+     * Get the opening instant of a day.
+     *
+     * @param day in the business time zone.
+     * @return opening time in epoch milliseconds.
+     */
+    public long openOn(LocalDate day){
+        long index = day.toEpochDay() - firstDay;
+        if(index < 0 || index >= opens.length){
+            return zone.toInstant(day.toEpochDay() * dayMillis + openMillis);
+        }
+        return opens[(int) index];
+    }
+
+    /**
+     * Get the closing instant of a day.
+     *
+     * @param day in the business time zone.
+     * @return closing time in epoch milliseconds.
+     */
+    public long closeOn(LocalDate day){
+        long index = day.toEpochDay() - firstDay;
+        if(index < 0 || index >= closes.length){
+            return zone.toInstant(day.toEpochDay() * dayMillis + closeMillis);
+        }
+        return closes[(int) index];
+    }
+
+    /**
+     * Logic to check if an interval falls within the business hours of one day.
+     *
+     * @param start of the interval in epoch milliseconds.
+     * @param end of the interval in epoch milliseconds.
+     * @return true if the interval starts at or after opening and ends at or before closing on the same day.
+     */
+    public boolean isWithinHours(long start, long end){
+        int day = dayOf(start);
+        if(day < 0){
+            long localStart = zone.toLocal(start);
+            long localEnd = zone.toLocal(end);
+            return Math.floorDiv(localStart, dayMillis) == Math.floorDiv(localEnd, dayMillis)
+                    && Math.floorMod(localStart, dayMillis) >= openMillis && Math.floorMod(localEnd, dayMillis) <= closeMillis;
+        }
+        return start >= opens[day] && end <= closes[day];
+    }
+
+    /**
+     * Logic to check a batch of intervals against the business hours.
+     *
+     * @param starts start of each interval in epoch milliseconds.
+     * @param ends end of each interval in epoch milliseconds.
+     * @return whether each interval is within business hours.
+     */
+    public boolean[] isWithinHours(long[] starts, long[] ends){
+        boolean[] results = new boolean[starts.length];
+        for(int i = 0; i < starts.length; i++){
+            results[i] = isWithinHours(starts[i], ends[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Logic to find the day of the tables whose opening is the latest at or before an instant.
+     * Days are close to a fixed length apart, so dividing by the length of a day is off by at most one.
+     *
+     * @param instant in epoch milliseconds.
+     * @return index of the day, or -1 if the instant is not covered by the tables.
+     */
+    private int dayOf(long instant){
+        if(opens.length == 0 || instant < opens[0]){
+            return -1;
+        }
+        long estimate = (instant - opens[0]) / dayMillis;
+        if(estimate >= opens.length){
+            return -1;
+        }
+        int day = (int) estimate;
+        if(instant < opens[day]){
+            day--;
+        }
+        else if(day + 1 < opens.length && instant >= opens[day + 1]){
+            day++;
+        }
+        // The last day is only covered until its closing.
+        if(day == opens.length - 1 && instant >= closes[day]){
+            return -1;
+        }
+        return day;
+    }
+}
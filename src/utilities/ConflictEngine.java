@@ -0,0 +1,267 @@
+/**
+ * A Conflict Engine class for finding double bookings of customers, users and contacts.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * A Conflict Engine class for finding double bookings of customers, users and contacts.
+ * Appointments are indexed by all three resources, and one query reports every resource that is already booked.
+ */
+public class ConflictEngine {
+
+    /**
+     * Flag for a conflict with the customer's appointments.
+     */
+    public static final int CUSTOMER = 1;
+
+    /**
+     * Flag for a conflict with the user's appointments.
+     */
+    public static final int USER = 2;
+
+    /**
+     * Flag for a conflict with the contact's appointments.
+     */
+    public static final int CONTACT = 4;
+
+    /**
+     * Resource ID meaning the resource should not be checked.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Appointment times for each customer.
+     */
+    private final IntervalIndex customers = new IntervalIndex();
+
+    /**
+     * Appointment times for each user.
+     */
+    private final IntervalIndex users = new IntervalIndex();
+
+    /**
+     * Appointment times for each contact.
+     */
+    private final IntervalIndex contacts = new IntervalIndex();
+
+    /**
+     * Logic to add an appointment to the engine. An appointment that is already indexed is moved.
+     *
+     * @param appointmentId ID of the appointment.
+     * @param customerId customer of the appointment.
+     * @param userId user of the appointment.
+     * @param contactId contact of the appointment.
+     * @param start of the appointment in epoch milliseconds.
+     * @param end of the appointment in epoch milliseconds.
+     */
+    public void add(int appointmentId, int customerId, int userId, int contactId, long start, long end) {
+        customers.add(customerId, appointmentId, start, end);
+        users.add(userId, appointmentId, start, end);
+        contacts.add(contactId, appointmentId, start, end);
+    }
+
+    /**
+     * Logic to add many appointments to the engine at once, such as when appointments are loaded.
+     * Appointments that are already indexed are moved.
+     *
+     * @param appointmentIds ID of each appointment.
+     * @param customerIds customer of each appointment.
+     * @param userIds user of each appointment.
+     * @param contactIds contact of each appointment.
+     * @param starts start of each appointment in epoch milliseconds.
+     * @param ends end of each appointment in epoch milliseconds.
+     */
+    public void addAll(int[] appointmentIds, int[] customerIds, int[] userIds, int[] contactIds, long[] starts, long[] ends) {
+        customers.addAll(customerIds, appointmentIds, starts, ends);
+        users.addAll(userIds, appointmentIds, starts, ends);
+        contacts.addAll(contactIds, appointmentIds, starts, ends);
+    }
+
+    /**
+     * Logic to remove an appointment from the engine.
+     *
+     * @param appointmentId ID of the appointment.
+     */
+    public void remove(int appointmentId) {
+        customers.remove(appointmentId);
+        users.remove(appointmentId);
+        contacts.remove(appointmentId);
+    }
+
+    /**
+     * Logic to remove every appointment from the engine.
+     */
+    public void clear() {
+        customers.clear();
+        users.clear();
+        contacts.clear();
+    }
+
+    /**
+     * Logic to find which resources are already booked during a time.
+     *
+     * @param customerId customer to check, or NONE.
+     * @param userId user to check, or NONE.
+     * @param contactId contact to check, or NONE.
+     * @param start of the proposed appointment in epoch milliseconds.
+     * @param end of the proposed appointment in epoch milliseconds.
+     * @param excludeId ID of an appointment to ignore, such as the one being updated.
+     * @return the CUSTOMER, USER and CONTACT flags of every conflicting resource, 0 if there are none.
+     */
+    public int conflicts(int customerId, int userId, int contactId, long start, long end, int excludeId) {
+        int result = 0;
+        if(customerId != NONE && customers.overlaps(customerId, start, end, excludeId)){
+            result |= CUSTOMER;
+        }
+        if(userId != NONE && users.overlaps(userId, start, end, excludeId)){
+            result |= USER;
+        }
+        if(contactId != NONE && contacts.overlaps(contactId, start, end, excludeId)){
+            result |= CONTACT;
+        }
+        return result;
+    }
+
+    /**
+     * Logic to check a batch of proposed appointments against the indexed appointments.
+     * Proposals are not checked against each other.
+     *
+     * @param customerIds customer of each proposal.
+     * @param userIds user of each proposal.
+     * @param contactIds contact of each proposal.
+     * @param starts start of each proposal in epoch milliseconds.
+     * @param ends end of each proposal in epoch milliseconds.
+     * @param excludeIds appointment ID each proposal replaces, or 0.
+     * @return the conflict flags of each proposal.
+     */
+    public int[] conflicts(int[] customerIds, int[] userIds, int[] contactIds, long[] starts, long[] ends, int[] excludeIds) {
+        int[] results = new int[starts.length];
+        for(int i = 0; i < starts.length; i++){
+            results[i] = conflicts(customerIds[i], userIds[i], contactIds[i], starts[i], ends[i], excludeIds[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Logic to find the earliest free slots for a set of resources.
+     * Slots start on a fixed step from the business opening time, fall within business hours and do not overlap each other.
+     *
+     * @param customerId customer to check, or NONE.
+     * @param userId user to check, or NONE.
+     * @param contactId contact to check, or NONE.
+     * @param excludeId ID of an appointment to ignore, such as the one being rescheduled.
+     * @param duration of the slot in milliseconds.
+     * @param from earliest slot start in epoch milliseconds.
+     * @param to latest slot end in epoch milliseconds.
+     * @param count maximum number of slots to return.
+     * @param step spacing of possible slot starts in milliseconds.
+     * @return the start of each free slot in epoch milliseconds, earliest first.
+     * @throws IllegalArgumentException throw if the duration or step is not positive, or the count is negative.
+     */
+    public long[] findFreeSlots(int customerId, int userId, int contactId, int excludeId,
+                                long duration, long from, long to, int count, long step) {
+        if(duration <= 0){
+            throw new IllegalArgumentException("Slot duration must be positive, was " + duration + " ms.");
+        }
+        if(step <= 0){
+            throw new IllegalArgumentException("Slot step must be positive, was " + step + " ms.");
+        }
+        if(count < 0){
+            throw new IllegalArgumentException("Slot count must not be negative, was " + count + ".");
+        }
+        long[] found = new long[count];
+        int n = 0;
+        LocalDate day = Instant.ofEpochMilli(from).atZone(TimeManager.businessZone).toLocalDate();
+        long t = from;
+
+        while(n < count){
+            long open = TimeManager.businessOpenOn(day);
+            long close = Math.min(TimeManager.businessCloseOn(day), to);
+            if(open >= to){
+                break;
+            }
+            t = alignUp(Math.max(t, open), open, step);
+            while(n < count && t + duration <= close){
+                long blockedUntil = blockedUntil(customerId, userId, contactId, t, t + duration, excludeId);
+                if(blockedUntil == Long.MIN_VALUE){
+                    found[n++] = t;
+                    t += duration;
+                }
+                else{
+                    t = blockedUntil;
+                }
+                t = alignUp(t, open, step);
+            }
+            day = day.plusDays(1);
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    /**
+     * Logic to find when every conflicting appointment of a set of resources is over.
+     *
+     * @param customerId customer to check, or NONE.
+     * @param userId user to check, or NONE.
+     * @param contactId contact to check, or NONE.
+     * @param start of the proposed time.
+     * @param end of the proposed time.
+     * @param excludeId ID of an appointment to ignore.
+     * @return the latest end of the conflicting appointments, or Long.MIN_VALUE if there are none.
+     */
+    private long blockedUntil(int customerId, int userId, int contactId, long start, long end, int excludeId) {
+        long latest = Long.MIN_VALUE;
+        if(customerId != NONE){
+            latest = Math.max(latest, customers.latestOverlappingEnd(customerId, start, end, excludeId));
+        }
+        if(userId != NONE){
+            latest = Math.max(latest, users.latestOverlappingEnd(userId, start, end, excludeId));
+        }
+        if(contactId != NONE){
+            latest = Math.max(latest, contacts.latestOverlappingEnd(contactId, start, end, excludeId));
+        }
+        return latest;
+    }
+
+    /**
+     * Logic to round a time up to the next step from an origin.
+     *
+     * @param time to round.
+     * @param origin the steps are counted from.
+     * @param step size of each step.
+     * @return the first step at or after the time.
+     */
+    private static long alignUp(long time, long origin, long step) {
+        long offset = Math.floorMod(time - origin, step);
+        return offset == 0 ? time : time + step - offset;
+    }
+
+    /**
+     * Logic to describe conflict flags for messages to the user.
+     *
+     * @param conflicts flags returned by a conflict check.
+     * @return a String such as "customer and contact".
+     */
+    public static String describe(int conflicts) {
+        StringBuilder sb = new StringBuilder();
+        String[] names = {"customer", "user", "contact"};
+        int[] flags = {CUSTOMER, USER, CONTACT};
+        int remaining = Integer.bitCount(conflicts);
+        for(int i = 0; i < flags.length; i++){
+            if((conflicts & flags[i]) != 0){
+                if(sb.length() > 0){
+                    sb.append(remaining == 1 ? " and " : ", ");
+                }
+                sb.append(names[i]);
+                remaining--;
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -26,11 +26,13 @@ public class ContactDAO {
      */
     public static int insert(String name, String email) throws SQLException {
         String sql = "INSERT INTO contacts (Contact_Name, Email) VALUES(?,?)";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setString(2,email);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setString(2,email);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
     /**
@@ -44,12 +46,14 @@ public class ContactDAO {
      */
     public static int update(int id, String name, String email) throws SQLException {
         String sql = "UPDATE contacts SET Contact_Name=?, Email=? WHERE Contact_ID=?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setString(2,email);
-        ps.setInt(3,id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setString(2,email);
+            ps.setInt(3,id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -62,10 +66,12 @@ public class ContactDAO {
      */
     public static int delete(int id) throws SQLException {
         String sql = "DELETE FROM contacts WHERE Contact_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1,id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setInt(1,id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -78,16 +84,18 @@ public class ContactDAO {
     public static ObservableList<Contact> select() throws SQLException {
         ObservableList<Contact> allContacts = FXCollections.observableArrayList();
         String sql = "SELECT * FROM contacts";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next()){
-            int contactID = rs.getInt("Contact_ID");
-            String name = rs.getString("Contact_Name");
-            String email = rs.getString("Email");
-            Contact contact = new Contact(contactID, name, email);
-            allContacts.add(contact);
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    int contactID = rs.getInt("Contact_ID");
+                    String name = rs.getString("Contact_Name");
+                    String email = rs.getString("Email");
+                    Contact contact = new Contact(contactID, name, email);
+                    allContacts.add(contact);
+                }
+            }
+            return allContacts;
         }
-
-        return allContacts;
     }
 }
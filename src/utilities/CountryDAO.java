@@ -30,14 +30,16 @@ public class CountryDAO {
      */
     public static int insert(String name, Timestamp createdDate, String createdBy, Timestamp lastUpdated, String lastUpdatedBy) throws SQLException {
         String sql = "INSERT INTO countries (Country, Create_Date, Created_By, Last_Update, Last_Updated_By) VALUES(?,?,?,?,?)";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setTimestamp(2, createdDate);
-        ps.setString(3, createdBy);
-        ps.setTimestamp(4, lastUpdated);
-        ps.setString(5, lastUpdatedBy);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setTimestamp(2, createdDate);
+            ps.setString(3, createdBy);
+            ps.setTimestamp(4, lastUpdated);
+            ps.setString(5, lastUpdatedBy);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -55,15 +57,17 @@ public class CountryDAO {
      */
     public static int update(int id, String name, Timestamp createdDate, String createdBy, Timestamp lastUpdated, String lastUpdatedBy) throws SQLException {
         String sql = "UPDATE COUNTRIES SET Country = ?, Create_Date = ?, Created_By = ?, Last_Update = ?, Last_Updated_By = ? WHERE Country_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setTimestamp(2, createdDate);
-        ps.setString(3, createdBy);
-        ps.setTimestamp(4, lastUpdated);
-        ps.setString(5, lastUpdatedBy);
-        ps.setInt(6,id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setTimestamp(2, createdDate);
+            ps.setString(3, createdBy);
+            ps.setTimestamp(4, lastUpdated);
+            ps.setString(5, lastUpdatedBy);
+            ps.setInt(6,id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -76,10 +80,12 @@ public class CountryDAO {
      */
     public static int delete(int id) throws SQLException {
         String sql = "DELETE FROM Countries WHERE Country_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1,id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setInt(1,id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -92,20 +98,23 @@ public class CountryDAO {
     public static ObservableList<Country> select() throws SQLException {
         ObservableList<Country> allCountries = FXCollections.observableArrayList();
         String sql = "SELECT * FROM countries";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next()){
-            int countryID = rs.getInt("Country_ID");
-            String name = rs.getString("Country");
-            Timestamp createdDate = rs.getTimestamp("Create_Date");
-            String createdBy = rs.getString("Created_By");
-            Timestamp lastUpdate = rs.getTimestamp("Last_Update");
-            String lastUpdatedBy = rs.getString("Last_Updated_By");
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    int countryID = rs.getInt("Country_ID");
+                    String name = rs.getString("Country");
+                    Timestamp createdDate = rs.getTimestamp("Create_Date");
+                    String createdBy = rs.getString("Created_By");
+                    Timestamp lastUpdate = rs.getTimestamp("Last_Update");
+                    String lastUpdatedBy = rs.getString("Last_Updated_By");
 
 
-            Country country = new Country(countryID, name, createdDate,createdBy, lastUpdate,lastUpdatedBy);
-            allCountries.add(country);
+                    Country country = new Country(countryID, name, createdDate,createdBy, lastUpdate,lastUpdatedBy);
+                    allCountries.add(country);
+                }
+            }
+            return allCountries;
         }
-        return allCountries;
     }
 }
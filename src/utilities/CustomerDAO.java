@@ -11,16 +11,27 @@ import DataBaseConnection.JDBC;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.Customer;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.function.Consumer;
 
 /**
  * A Customer Data Access Object class for customers.
  */
 public class CustomerDAO {
 
+    /**
+     * Calendar the customer dates are stored in. Their columns hold UTC wall clock times, so they are read and
+     * written through a UTC calendar and the Timestamps in memory are plain instants. One per thread,
+     * as a Calendar cannot be shared. Shared with ExportDAO.
+     */
+    static final ThreadLocal<Calendar> utc = ThreadLocal.withInitial(() -> Calendar.getInstance(TimeZone.getTimeZone("UTC")));
 
     /**
      * Logic to insert a new Customer into the database.
@@ -39,18 +50,20 @@ public class CustomerDAO {
      */
     public static int insert(String name, String address, String postalCode, String phoneNumber, Timestamp createdDate, String createdBy, Timestamp lastUpdated, String lastUpdatedBy, int divisionID) throws SQLException {
         String sql = "INSERT INTO CUSTOMERS (Customer_Name, Address, Postal_Code, Phone, Create_Date, Created_By, Last_Update, Last_Updated_By, Division_ID) VALUES(?, ?, ?,?, ?,  ?, ?, ?, ?)";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setString(2,address);
-        ps.setString(3, postalCode);
-        ps.setString(4, phoneNumber);
-        ps.setTimestamp(5, createdDate);
-        ps.setString(6, createdBy);
-        ps.setTimestamp(7,  lastUpdated);
-        ps.setString(8, lastUpdatedBy);
-        ps.setInt(9, divisionID);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setString(2,address);
+            ps.setString(3, postalCode);
+            ps.setString(4, phoneNumber);
+            ps.setTimestamp(5, createdDate, utc.get());
+            ps.setString(6, createdBy);
+            ps.setTimestamp(7, lastUpdated, utc.get());
+            ps.setString(8, lastUpdatedBy);
+            ps.setInt(9, divisionID);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
     /**
@@ -71,19 +84,21 @@ public class CustomerDAO {
      */
     public static int update(int id,String name, String address, String postalCode, String phoneNumber, Timestamp createdDate, String createdBy, Timestamp lastUpdated, String lastUpdatedBy, int divisionID) throws SQLException {
         String sql = "UPDATE CUSTOMERS SET Customer_Name = ?, Address = ?, Postal_Code = ?, Phone = ?, Create_Date = ?, Created_By = ?, Last_Update = ?, Last_Updated_By = ?, Division_ID = ? WHERE Customer_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setString(2,address);
-        ps.setString(3, postalCode);
-        ps.setString(4, phoneNumber);
-        ps.setTimestamp(5, createdDate);
-        ps.setString(6, createdBy);
-        ps.setTimestamp(7, lastUpdated);
-        ps.setString(8, lastUpdatedBy);
-        ps.setInt(9, divisionID);
-        ps.setInt(10, id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setString(2,address);
+            ps.setString(3, postalCode);
+            ps.setString(4, phoneNumber);
+            ps.setTimestamp(5, createdDate, utc.get());
+            ps.setString(6, createdBy);
+            ps.setTimestamp(7, lastUpdated, utc.get());
+            ps.setString(8, lastUpdatedBy);
+            ps.setInt(9, divisionID);
+            ps.setInt(10, id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
     /**
@@ -94,11 +109,27 @@ public class CustomerDAO {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static int delete(int id) throws SQLException {
+        try(Connection connection = JDBC.getConnection()){
+            return delete(connection, id);
+        }
+    }
+
+
+    /**
+     * Logic to delete a Customer from the database on a given connection, such as inside a transaction.
+     *
+     * @param connection to run the statement on.
+     * @param id of the Customer to delete.
+     * @return the number of rows affected by the query.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static int delete(Connection connection, int id) throws SQLException {
         String sql = "DELETE FROM CUSTOMERS WHERE Customer_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1,id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setInt(1,id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -111,23 +142,123 @@ public class CustomerDAO {
     public static ObservableList<Customer> select() throws SQLException {
         ObservableList<Customer> allCustomers = FXCollections.observableArrayList();
         String sql = "SELECT * FROM customers";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next()){
-            int customerID = rs.getInt("Customer_ID");
-            String customerName = rs.getString("Customer_Name");
-            String address = rs.getString("Address");
-            String postalCode = rs.getString("Postal_Code");
-            String phoneNumber = rs.getString("Phone");
-            Timestamp createdDate =  TimeManager.fromUTCtoLocalTS(rs.getTimestamp("Create_Date"));
-            String createdBy = rs.getString("Created_By");
-            Timestamp lastUpdate = TimeManager.fromUTCtoLocalTS(rs.getTimestamp("Last_Update"));
-            String lastUpdatedBy = rs.getString("Last_Updated_By");
-            int divisionID = rs.getInt("Division_ID");
-
-            Customer customer = new Customer(customerID, customerName,address,postalCode,phoneNumber, createdDate,createdBy, lastUpdate,lastUpdatedBy,divisionID);
-            allCustomers.add(customer);
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    allCustomers.add(fromResultSet(rs));
+                }
+            }
+            return allCustomers;
+        }
+    }
+
+
+    /**
+     * Logic to select the Customers changed since a time, for merging into the customers held in memory.
+     *
+     * @param since earliest Last_Update to select, as stored in the database.
+     * @param consumer called with each changed Customer.
+     * @return the latest Last_Update selected as stored in the database, or since if nothing changed.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static Timestamp selectUpdatedSince(Timestamp since, Consumer<Customer> consumer) throws SQLException {
+        String sql = "SELECT * FROM customers WHERE Last_Update >= ? ORDER BY Last_Update";
+        Timestamp latest = since;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setTimestamp(1, since);
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    latest = rs.getTimestamp("Last_Update");
+                    consumer.accept(fromResultSet(rs));
+                }
+            }
         }
-        return allCustomers;
+        return latest;
+    }
+
+
+    /**
+     * Logic to select the latest Last_Update of the Customers.
+     *
+     * @return the latest Last_Update as stored in the database, or null if there are none.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static Timestamp selectLatestUpdate() throws SQLException {
+        String sql = "SELECT MAX(Last_Update) FROM customers";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                rs.next();
+                return rs.getTimestamp(1);
+            }
+        }
+    }
+
+
+    /**
+     * Logic to count the Customers in the database.
+     *
+     * @return the number of customers.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static int count() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM customers";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+
+    /**
+     * Logic to select the ID of every Customer in the database.
+     *
+     * @return the IDs in ascending order.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static int[] selectIds() throws SQLException {
+        String sql = "SELECT Customer_ID FROM customers ORDER BY Customer_ID";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                int[] ids = new int[64];
+                int n = 0;
+                while(rs.next()){
+                    if(n == ids.length){
+                        ids = Arrays.copyOf(ids, n * 2);
+                    }
+                    ids[n++] = rs.getInt(1);
+                }
+                return Arrays.copyOf(ids, n);
+            }
+        }
+    }
+
+
+    /**
+     * Logic to build a Customer from the current row of a ResultSet.
+     *
+     * @param rs positioned on a customers row.
+     * @return the Customer of the row.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    private static Customer fromResultSet(ResultSet rs) throws SQLException {
+        int customerID = rs.getInt("Customer_ID");
+        String customerName = rs.getString("Customer_Name");
+        String address = rs.getString("Address");
+        String postalCode = rs.getString("Postal_Code");
+        String phoneNumber = rs.getString("Phone");
+        Timestamp createdDate = rs.getTimestamp("Create_Date", utc.get());
+        String createdBy = rs.getString("Created_By");
+        Timestamp lastUpdate = rs.getTimestamp("Last_Update", utc.get());
+        String lastUpdatedBy = rs.getString("Last_Updated_By");
+        int divisionID = rs.getInt("Division_ID");
+
+        return new Customer(customerID, customerName,address,postalCode,phoneNumber, createdDate,createdBy, lastUpdate,lastUpdatedBy,divisionID);
     }
 }
@@ -0,0 +1,199 @@
+/**
+ * A Delta Sync class for keeping the appointments and customers in memory current with the database.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import javafx.application.Platform;
+import model.Appointment;
+import model.Customer;
+import model.TransformedCustomer;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Delta Sync class for keeping the appointments and customers in memory current with the database.
+ *
+ * On a fixed schedule, the rows whose Last_Update is at or after a watermark are read and merged into the
+ * containers on the JavaFX application thread, so changes made by other clients show up without full reloads.
+ * Deleted rows leave nothing behind to select, so the number of rows is compared with the container instead,
+ * and only when they differ is the list of IDs read to find the rows that are gone.
+ */
+public class DeltaSync {
+
+    /**
+     * Seconds between polls of the database.
+     */
+    private static final long pollSeconds = 30;
+
+    /**
+     * Milliseconds before the watermark that are read again on every poll.
+     * Every client writes Last_Update in the same zone and the watermark is compared as stored, so only small
+     * differences between the clients' clocks can put a new row behind the watermark. Reading one poll interval
+     * behind it catches those rows; merging a row twice is harmless.
+     */
+    private static final long lookbackMillis = pollSeconds * 1000L;
+
+    /**
+     * Scheduler that runs the polls, null while not started.
+     */
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * Latest Last_Update of the customers read so far, as stored in the database.
+     */
+    private static Timestamp customerWatermark;
+
+    /**
+     * Latest Last_Update of the appointments read so far, as stored in the database.
+     */
+    private static Timestamp appointmentWatermark;
+
+    /**
+     * Logic to start polling the database for changes.
+     */
+    public static synchronized void start(){
+        if(scheduler != null){
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "delta-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(DeltaSync::poll, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Logic to stop polling the database for changes.
+     */
+    public static synchronized void stop(){
+        if(scheduler != null){
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Logic to read the changes since the last poll and hand them to the JavaFX application thread.
+     * Appointments are only synced once every page of them is loaded.
+     */
+    private static void poll(){
+        try{
+            if(customerWatermark == null){
+                customerWatermark = orEpoch(CustomerDAO.selectLatestUpdate());
+            }
+            List<Customer> customers = new ArrayList<>();
+            customerWatermark = later(customerWatermark, CustomerDAO.selectUpdatedSince(behind(customerWatermark), customers::add));
+            int customerCount = CustomerDAO.count();
+
+            List<Appointment> appointments = new ArrayList<>();
+            int appointmentCount = -1;
+            if(Appointment.isAllAppointmentsLoaded()){
+                if(appointmentWatermark == null){
+                    appointmentWatermark = orEpoch(AppointmentDAO.selectLatestUpdate());
+                }
+                appointmentWatermark = later(appointmentWatermark, AppointmentDAO.selectUpdatedSince(behind(appointmentWatermark), appointments::add));
+                appointmentCount = AppointmentDAO.count();
+            }
+
+            int appointmentsInDatabase = appointmentCount;
+            Platform.runLater(() -> merge(customers, customerCount, appointments, appointmentsInDatabase));
+        }
+        catch(SQLException e){
+            System.out.println("Error:" + e.getMessage());
+        }
+    }
+
+    /**
+     * Logic to merge the changes of a poll into the containers.
+     *
+     * @param customers changed customers.
+     * @param customerCount number of customers in the database.
+     * @param appointments changed appointments.
+     * @param appointmentCount number of appointments in the database, -1 if appointments were not synced.
+     */
+    private static void merge(List<Customer> customers, int customerCount, List<Appointment> appointments, int appointmentCount){
+        boolean customersChanged = false;
+        for(Customer c : customers){
+            customersChanged |= Customer.mergeCustomer(c);
+        }
+        if(Customer.getAllCustomers().size() != customerCount){
+            AsyncDAO.submit(CustomerDAO::selectIds).whenCompleteAsync((ids, e) -> {
+                if(e != null){
+                    System.out.println("Error:" + AsyncDAO.unwrap(e).getMessage());
+                }
+                else if(Customer.retainCustomers(ids)){
+                    refreshTransformedCustomers();
+                }
+            }, AsyncDAO.fxThread);
+        }
+        if(customersChanged){
+            refreshTransformedCustomers();
+        }
+
+        for(Appointment p : appointments){
+            Appointment.mergeAppointment(p);
+        }
+        if(appointmentCount >= 0 && Appointment.getAllAppointments().size() != appointmentCount){
+            AsyncDAO.submit(AppointmentDAO::selectIds).whenCompleteAsync((ids, e) -> {
+                if(e != null){
+                    System.out.println("Error:" + AsyncDAO.unwrap(e).getMessage());
+                }
+                else{
+                    Appointment.retainAppointments(ids);
+                }
+            }, AsyncDAO.fxThread);
+        }
+    }
+
+    /**
+     * Logic to rebuild the transformed customers shown by the customer screen.
+     */
+    private static void refreshTransformedCustomers(){
+        try{
+            TransformedCustomer.setAllTransformedCustomers();
+        }
+        catch(SQLException e){
+            System.out.println("Error:" + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the time to read changes from for a watermark.
+     *
+     * @param watermark latest Last_Update read so far.
+     * @return the watermark moved back by the look back window.
+     */
+    private static Timestamp behind(Timestamp watermark){
+        return new Timestamp(watermark.getTime() - lookbackMillis);
+    }
+
+    /**
+     * Get a watermark, or the start of the epoch for a table with no rows.
+     *
+     * @param watermark latest Last_Update of a table, may be null.
+     * @return the watermark, never null.
+     */
+    private static Timestamp orEpoch(Timestamp watermark){
+        return watermark == null ? new Timestamp(0) : watermark;
+    }
+
+    /**
+     * Get the later of two watermarks, so a watermark never moves back.
+     *
+     * @param current watermark.
+     * @param read latest Last_Update of a poll.
+     * @return the later of the two.
+     */
+    private static Timestamp later(Timestamp current, Timestamp read){
+        return read.after(current) ? read : current;
+    }
+}
@@ -0,0 +1,693 @@
+/**
+ * An Export Data Access Object class for writing tables and reports to files.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import DataBaseConnection.JDBC;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * An Export Data Access Object class for writing tables and reports to files.
+ *
+ * Rows are read through a forward only server side cursor and written through a FileChannel with a large buffer,
+ * so an export of any number of rows runs in constant memory. Two formats are written:
+ * CSV as described by RFC 4180, and a columnar binary format for analytics jobs.
+ *
+ * The columnar format is big endian. It starts with the int magic 0x4150434C, the int version, the int number of
+ * columns, and for each column its name as an int UTF-8 length and bytes followed by a type byte: 0 for a long,
+ * 1 for a double, 2 for a String and 3 for a timestamp in epoch milliseconds. Row groups follow, each the int
+ * number of rows and then every column in turn: a null bitmap of one bit per row, then 8 bytes per row for numbers
+ * and timestamps, or for Strings the int number of bytes, an int end offset per row and the UTF-8 bytes.
+ * A row group of 0 rows marks the end, followed by the long total number of rows.
+ */
+public class ExportDAO {
+
+    /**
+     * Marker at the start of every columnar file.
+     */
+    private static final int magic = 0x4150434C;
+
+    /**
+     * Layout version of the columnar file, increased whenever the layout changes.
+     */
+    private static final int version = 1;
+
+    /**
+     * Number of rows to fetch from the server at a time.
+     */
+    private static final int fetchSize = 1000;
+
+    /**
+     * Size of the buffer between the rows and the file.
+     */
+    private static final int bufferBytes = 1 << 20;
+
+    /**
+     * Number of rows in each row group of a columnar file.
+     */
+    private static final int rowGroupRows = 65536;
+
+    /**
+     * Column type of a whole number.
+     */
+    private static final byte longColumn = 0;
+
+    /**
+     * Column type of a decimal number.
+     */
+    private static final byte doubleColumn = 1;
+
+    /**
+     * Column type of text.
+     */
+    private static final byte stringColumn = 2;
+
+    /**
+     * Column type of a timestamp.
+     */
+    private static final byte timestampColumn = 3;
+
+    /**
+     * Query of every appointment.
+     */
+    private static final String appointmentsSql = "SELECT * FROM appointments ORDER BY Appointment_ID";
+
+    /**
+     * Query of every customer.
+     */
+    private static final String customersSql = "SELECT * FROM customers ORDER BY Customer_ID";
+
+
+    /**
+     * Logic to export every appointment as CSV.
+     *
+     * @param file to write.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    public static long appointmentsToCsv(Path file) throws SQLException, IOException {
+        return toCsv(appointmentsSql, file);
+    }
+
+    /**
+     * Logic to export every appointment in the columnar format.
+     *
+     * @param file to write.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    public static long appointmentsToColumnar(Path file) throws SQLException, IOException {
+        return toColumnar(appointmentsSql, file, null);
+    }
+
+    /**
+     * Logic to export every customer as CSV.
+     *
+     * @param file to write.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    public static long customersToCsv(Path file) throws SQLException, IOException {
+        return toCsv(customersSql, file);
+    }
+
+    /**
+     * Logic to export every customer in the columnar format.
+     *
+     * @param file to write.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    public static long customersToColumnar(Path file) throws SQLException, IOException {
+        return toColumnar(customersSql, file, CustomerDAO.utc.get());
+    }
+
+    /**
+     * Logic to export the contact schedule report as CSV.
+     *
+     * @param file to write.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    public static long contactScheduleToCsv(Path file) throws SQLException, IOException {
+        return toCsv(ReportDAO.contactScheduleSql, file);
+    }
+
+    /**
+     * Logic to export the customer total time report as CSV.
+     *
+     * @param file to write.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    public static long customerTotalTimeToCsv(Path file) throws SQLException, IOException {
+        return toCsv(ReportDAO.customerTotalTimeSql, file);
+    }
+
+
+    /**
+     * Logic to write the rows of a query as CSV, with a header row of the column labels.
+     *
+     * @param sql query to export.
+     * @param file to write.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    private static long toCsv(String sql, Path file) throws SQLException, IOException {
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)){
+            ps.setFetchSize(fetchSize);
+            try(ResultSet rs = ps.executeQuery()){
+                return writeCsv(rs, file);
+            }
+        }
+    }
+
+    /**
+     * Logic to write the rows of a result set as CSV, with a header row of the column labels.
+     *
+     * @param rs rows to export, read to the end.
+     * @param file to write.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    static long writeCsv(ResultSet rs, Path file) throws SQLException, IOException {
+        Path temp = tempFor(file);
+        long rows = 0;
+        try(ChannelWriter out = new ChannelWriter(temp)){
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            StringBuilder line = new StringBuilder(256);
+            for(int i = 1; i <= columns; i++){
+                appendCsvField(line, meta.getColumnLabel(i), i == 1);
+            }
+            out.putText(line.append("\r\n"));
+
+            while(rs.next()){
+                line.setLength(0);
+                for(int i = 1; i <= columns; i++){
+                    appendCsvField(line, rs.getString(i), i == 1);
+                }
+                out.putText(line.append("\r\n"));
+                if(++rows % rowGroupRows == 0){
+                    checkInterrupted();
+                }
+            }
+        }
+        catch(SQLException | IOException | RuntimeException e){
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    /**
+     * Logic to write the rows of a query in the columnar format.
+     *
+     * @param sql query to export.
+     * @param file to write.
+     * @param calendar the timestamp columns are stored in, or null for the connection's time zone.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    private static long toColumnar(String sql, Path file, Calendar calendar) throws SQLException, IOException {
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)){
+            ps.setFetchSize(fetchSize);
+            try(ResultSet rs = ps.executeQuery()){
+                return writeColumnar(rs, file, calendar);
+            }
+        }
+    }
+
+    /**
+     * Logic to write the rows of a result set in the columnar format.
+     * Each row group is collected into per column arrays that are reused for the next group.
+     *
+     * @param rs rows to export, read to the end.
+     * @param file to write.
+     * @param calendar the timestamp columns are stored in, or null for the connection's time zone.
+     * @return number of rows written.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    static long writeColumnar(ResultSet rs, Path file, Calendar calendar) throws SQLException, IOException {
+        Path temp = tempFor(file);
+        long rows = 0;
+        try(ChannelWriter out = new ChannelWriter(temp)){
+            ResultSetMetaData meta = rs.getMetaData();
+            Column[] columns = new Column[meta.getColumnCount()];
+            out.putInt(magic);
+            out.putInt(version);
+            out.putInt(columns.length);
+            for(int i = 0; i < columns.length; i++){
+                columns[i] = new Column(typeOf(meta.getColumnType(i + 1)), calendar);
+                out.putString(meta.getColumnLabel(i + 1));
+                out.putByte(columns[i].type);
+            }
+
+            int groupRows = 0;
+            while(rs.next()){
+                for(int i = 0; i < columns.length; i++){
+                    columns[i].read(rs, i + 1, groupRows);
+                }
+                rows++;
+                if(++groupRows == rowGroupRows){
+                    writeRowGroup(out, columns, groupRows);
+                    groupRows = 0;
+                    checkInterrupted();
+                }
+            }
+            if(groupRows > 0){
+                writeRowGroup(out, columns, groupRows);
+            }
+            out.putInt(0);
+            out.putLong(rows);
+        }
+        catch(SQLException | IOException | RuntimeException e){
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    /**
+     * Logic to write a row group and empty the columns for the next one.
+     *
+     * @param out writer of the file.
+     * @param columns collected for the group.
+     * @param rows number of rows in the group.
+     * @throws IOException thrown if the file cannot be written.
+     */
+    private static void writeRowGroup(ChannelWriter out, Column[] columns, int rows) throws IOException {
+        out.putInt(rows);
+        for(Column column : columns){
+            column.write(out, rows);
+        }
+    }
+
+    /**
+     * Get the columnar type of a JDBC column type.
+     *
+     * @param sqlType from java.sql.Types.
+     * @return the column type.
+     */
+    private static byte typeOf(int sqlType){
+        switch(sqlType){
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return longColumn;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return doubleColumn;
+            case Types.DATE:
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return timestampColumn;
+            default:
+                return stringColumn;
+        }
+    }
+
+    /**
+     * Logic to append a field to a CSV line, quoting it if it holds a comma, quote or line break.
+     * A null field is left empty.
+     *
+     * @param line being built.
+     * @param value of the field.
+     * @param first true for the first field of the line.
+     */
+    private static void appendCsvField(StringBuilder line, String value, boolean first){
+        if(!first){
+            line.append(',');
+        }
+        if(value == null){
+            return;
+        }
+        boolean quote = false;
+        for(int i = 0; i < value.length() && !quote; i++){
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if(!quote){
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c == '"'){
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /**
+     * Logic to stop an export with an SQLException if the thread running it was interrupted, such as by cancelling it.
+     *
+     * @throws SQLException throw if the export was cancelled.
+     */
+    private static void checkInterrupted() throws SQLException {
+        if(Thread.currentThread().isInterrupted()){
+            throw new SQLException("Export cancelled.");
+        }
+    }
+
+    /**
+     * Get the temporary file an export is written to before it is moved into place,
+     * so a failed export never leaves a partial file behind.
+     *
+     * @param file the export is for.
+     * @return the temporary file next to it.
+     */
+    private static Path tempFor(Path file){
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    /**
+     * One column of a row group.
+     */
+    private static class Column {
+
+        /**
+         * Columnar type of the column.
+         */
+        private final byte type;
+
+        /**
+         * Calendar a timestamp column is stored in, or null for the connection's time zone.
+         */
+        private final Calendar calendar;
+
+        /**
+         * Bit set for each row that is null.
+         */
+        private final byte[] nulls = new byte[(rowGroupRows + 7) / 8];
+
+        /**
+         * Value of each row of a long, double or timestamp column, doubles stored as their bits.
+         */
+        private long[] values;
+
+        /**
+         * End offset in bytes of each row of a String column.
+         */
+        private int[] ends;
+
+        /**
+         * UTF-8 bytes of the rows of a String column.
+         */
+        private byte[] bytes;
+
+        /**
+         * Number of bytes used in bytes.
+         */
+        private int byteCount = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param type of the column.
+         * @param calendar a timestamp column is stored in, or null for the connection's time zone.
+         */
+        private Column(byte type, Calendar calendar){
+            this.type = type;
+            this.calendar = calendar;
+            if(type == stringColumn){
+                ends = new int[rowGroupRows];
+                bytes = new byte[rowGroupRows * 16];
+            }
+            else{
+                values = new long[rowGroupRows];
+            }
+        }
+
+        /**
+         * Logic to read the column of the current row.
+         *
+         * @param rs positioned on the row.
+         * @param index of the column in the result set.
+         * @param row within the row group.
+         * @throws SQLException throw if SQL statement fails to resolve.
+         */
+        private void read(ResultSet rs, int index, int row) throws SQLException {
+            boolean isNull;
+            if(type == longColumn){
+                values[row] = rs.getLong(index);
+                isNull = rs.wasNull();
+            }
+            else if(type == doubleColumn){
+                values[row] = Double.doubleToRawLongBits(rs.getDouble(index));
+                isNull = rs.wasNull();
+            }
+            else if(type == timestampColumn){
+                Timestamp timestamp = calendar == null ? rs.getTimestamp(index) : rs.getTimestamp(index, calendar);
+                isNull = timestamp == null;
+                values[row] = isNull ? 0 : timestamp.getTime();
+            }
+            else{
+                String text = rs.getString(index);
+                isNull = text == null;
+                if(!isNull){
+                    byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+                    if(byteCount + encoded.length > bytes.length){
+                        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + encoded.length));
+                    }
+                    System.arraycopy(encoded, 0, bytes, byteCount, encoded.length);
+                    byteCount += encoded.length;
+                }
+                ends[row] = byteCount;
+            }
+            if(isNull){
+                nulls[row >>> 3] |= (byte) (1 << (row & 7));
+            }
+        }
+
+        /**
+         * Logic to write the column of a row group and empty it for the next one.
+         *
+         * @param out writer of the file.
+         * @param rows number of rows in the group.
+         * @throws IOException thrown if the file cannot be written.
+         */
+        private void write(ChannelWriter out, int rows) throws IOException {
+            int nullBytes = (rows + 7) / 8;
+            out.putBytes(nulls, 0, nullBytes);
+            Arrays.fill(nulls, 0, nullBytes, (byte) 0);
+            if(type == stringColumn){
+                out.putInt(byteCount);
+                for(int i = 0; i < rows; i++){
+                    out.putInt(ends[i]);
+                }
+                out.putBytes(bytes, 0, byteCount);
+                byteCount = 0;
+            }
+            else{
+                for(int i = 0; i < rows; i++){
+                    out.putLong(values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * A writer that fills one large direct buffer and writes it to a file channel whenever it is full.
+     */
+    private static class ChannelWriter implements AutoCloseable {
+
+        /**
+         * Channel of the file being written.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Buffer of bytes not yet written to the channel.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes);
+
+        /**
+         * Encoder of text written as UTF-8, reused for every line.
+         */
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        /**
+         * Constructor.
+         *
+         * @param file to create or replace.
+         * @throws IOException thrown if the file cannot be opened.
+         */
+        private ChannelWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Logic to make room in the buffer, writing it out if fewer bytes than needed remain.
+         *
+         * @param needed number of bytes about to be put.
+         * @throws IOException thrown if the file cannot be written.
+         */
+        private void ensure(int needed) throws IOException {
+            if(buffer.remaining() < needed){
+                flush();
+            }
+        }
+
+        /**
+         * Logic to write everything in the buffer to the channel.
+         *
+         * @throws IOException thrown if the file cannot be written.
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Logic to put a byte.
+         *
+         * @param value to put.
+         * @throws IOException thrown if the file cannot be written.
+         */
+        private void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        /**
+         * Logic to put an int.
+         *
+         * @param value to put.
+         * @throws IOException thrown if the file cannot be written.
+         */
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        /**
+         * Logic to put a long.
+         *
+         * @param value to put.
+         * @throws IOException thrown if the file cannot be written.
+         */
+        private void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        /**
+         * Logic to put a run of bytes, in as many pieces as the buffer needs.
+         *
+         * @param bytes to put from.
+         * @param offset of the first byte.
+         * @param length number of bytes.
+         * @throws IOException thrown if the file cannot be written.
+         */
+        private void putBytes(byte[] bytes, int offset, int length) throws IOException {
+            while(length > 0){
+                ensure(1);
+                int piece = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, piece);
+                offset += piece;
+                length -= piece;
+            }
+        }
+
+        /**
+         * Logic to put a String as its int UTF-8 length and bytes.
+         *
+         * @param value to put.
+         * @throws IOException thrown if the file cannot be written.
+         */
+        private void putString(String value) throws IOException {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            putInt(encoded.length);
+            putBytes(encoded, 0, encoded.length);
+        }
+
+        /**
+         * Logic to put text encoded as UTF-8 straight into the buffer.
+         *
+         * @param text to put.
+         * @throws IOException thrown if the file cannot be written.
+         */
+        private void putText(CharSequence text) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(text);
+            encoder.reset();
+            while(true){
+                CoderResult result = encoder.encode(chars, buffer, true);
+                if(result.isOverflow()){
+                    flush();
+                }
+                else if(result.isUnderflow()){
+                    break;
+                }
+                else{
+                    result.throwException();
+                }
+            }
+        }
+
+        /**
+         * Logic to write what is left in the buffer and close the file.
+         *
+         * @throws IOException thrown if the file cannot be written.
+         */
+        @Override
+        public void close() throws IOException {
+            try{
+                flush();
+            }
+            finally{
+                channel.close();
+            }
+        }
+    }
+}
@@ -33,15 +33,17 @@ public class FirstLevelDivisionDAO {
      */
     public static int insert(String name, Timestamp createdDate, String createdBy, Timestamp lastUpdated, String lastUpdatedBy, int country_id) throws SQLException {
         String sql = "INSERT INTO first_level_divisions (Division, Create_Date, Created_By, Last_Update, Last_Updated_By, Country_ID) VALUES(?,?,?,?,?,?)";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setTimestamp(2, createdDate);
-        ps.setString(3, createdBy);
-        ps.setTimestamp(4, lastUpdated);
-        ps.setString(5, lastUpdatedBy);
-        ps.setInt(6, country_id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setTimestamp(2, createdDate);
+            ps.setString(3, createdBy);
+            ps.setTimestamp(4, lastUpdated);
+            ps.setString(5, lastUpdatedBy);
+            ps.setInt(6, country_id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
     /**
@@ -59,16 +61,18 @@ public class FirstLevelDivisionDAO {
      */
     public static int update(int firstLevelDivisionID, String name, Timestamp createdDate, String createdBy, Timestamp lastUpdated, String lastUpdatedBy, int country_id) throws SQLException {
         String sql = "UPDATE first_level_divisions SET Division = ?, Create_Date = ?, Created_By = ?, Last_Update = ?, Last_Updated_By = ?, Country_ID = ? WHERE Division_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setTimestamp(2, createdDate);
-        ps.setString(3, createdBy);
-        ps.setTimestamp(4, lastUpdated);
-        ps.setString(5, lastUpdatedBy);
-        ps.setInt(6, country_id);
-        ps.setInt(7, firstLevelDivisionID);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setTimestamp(2, createdDate);
+            ps.setString(3, createdBy);
+            ps.setTimestamp(4, lastUpdated);
+            ps.setString(5, lastUpdatedBy);
+            ps.setInt(6, country_id);
+            ps.setInt(7, firstLevelDivisionID);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -81,10 +85,12 @@ public class FirstLevelDivisionDAO {
      */
     public static int delete(int id) throws SQLException {
         String sql = "DELETE FROM first_level_divisions WHERE Division_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1,id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setInt(1,id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -97,21 +103,23 @@ public class FirstLevelDivisionDAO {
     public static ObservableList<FirstLevelDivision> select() throws SQLException {
         ObservableList<FirstLevelDivision> allFirstLevelDivisions = FXCollections.observableArrayList();
         String sql = "SELECT * FROM first_level_divisions";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next()){
-            int firstLevelDivisionID = rs.getInt("Division_ID");
-            String name = rs.getString("Division");
-            Timestamp createdDate = rs.getTimestamp("Create_Date");
-            String createdBy = rs.getString("Created_By");
-            Timestamp lastUpdate = rs.getTimestamp("Last_Update");
-            String lastUpdatedBy = rs.getString("Last_Updated_By");
-            int country_id = rs.getInt("Country_ID");
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    int firstLevelDivisionID = rs.getInt("Division_ID");
+                    String name = rs.getString("Division");
+                    Timestamp createdDate = rs.getTimestamp("Create_Date");
+                    String createdBy = rs.getString("Created_By");
+                    Timestamp lastUpdate = rs.getTimestamp("Last_Update");
+                    String lastUpdatedBy = rs.getString("Last_Updated_By");
+                    int country_id = rs.getInt("Country_ID");
 
-            FirstLevelDivision fld = new FirstLevelDivision(firstLevelDivisionID, name, createdDate,createdBy,lastUpdate,lastUpdatedBy,country_id);
-            allFirstLevelDivisions.add(fld);
+                    FirstLevelDivision fld = new FirstLevelDivision(firstLevelDivisionID, name, createdDate,createdBy,lastUpdate,lastUpdatedBy,country_id);
+                    allFirstLevelDivisions.add(fld);
+                }
+            }
+            return allFirstLevelDivisions;
         }
-
-        return allFirstLevelDivisions;
     }
 }
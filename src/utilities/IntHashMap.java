@@ -0,0 +1,208 @@
+/**
+ * A hash map keyed by primitive ints.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import java.util.Arrays;
+
+/**
+ * A hash map keyed by primitive ints, so lookups by ID do not box the key.
+ * Uses open addressing with linear probing. Null values are not allowed.
+ *
+ * @param <V> type of the values.
+ */
+public class IntHashMap<V> {
+
+    /**
+     * Keys of the occupied slots.
+     */
+    private int[] keys;
+
+    /**
+     * Values of the slots, null for an empty slot.
+     */
+    private Object[] values;
+
+    /**
+     * Number of entries.
+     */
+    private int size = 0;
+
+    /**
+     * Constructor.
+     */
+    public IntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize number of entries to make room for.
+     */
+    public IntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Logic to find the slot a key hashes to.
+     *
+     * @param key to hash.
+     * @return the first slot to probe.
+     */
+    private int slotOf(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    /**
+     * Logic to find the slot holding a key.
+     *
+     * @param key to find.
+     * @return the slot of the key, or -1 if it is not in the map.
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        for(int i = slotOf(key); values[i] != null; i = (i + 1) & mask){
+            if(keys[i] == key){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key to look up.
+     * @return the value, or null if the key is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = find(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * Check if a key is in the map.
+     *
+     * @param key to look up.
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Set the value of a key.
+     *
+     * @param key to set.
+     * @param value to be set, not null.
+     * @return the previous value, or null if the key was not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if(value == null){
+            throw new NullPointerException("IntHashMap does not allow null values.");
+        }
+        int mask = keys.length - 1;
+        int i = slotOf(key);
+        while(values[i] != null){
+            if(keys[i] == key){
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if(++size * 2 > keys.length){
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Remove a key from the map.
+     * Later entries of the probe run are shifted back so lookups never need tombstones.
+     *
+     * @param key to remove.
+     * @return the removed value, or null if the key was not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int hole = find(key);
+        if(hole < 0){
+            return null;
+        }
+        V removed = (V) values[hole];
+        int mask = keys.length - 1;
+        for(int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask){
+            int home = slotOf(keys[i]);
+            boolean movable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if(movable){
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Remove every entry from the map.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the map has no entries.
+     *
+     * @return true if the map is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Logic to move every entry into a table of a new size.
+     *
+     * @param capacity of the new table, a power of two.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for(int j = 0; j < oldKeys.length; j++){
+            if(oldValues[j] != null){
+                int i = slotOf(oldKeys[j]);
+                while(values[i] != null){
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
@@ -0,0 +1,716 @@
+/**
+ * An index of time intervals grouped by a resource key, such as a customer ID.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import java.util.Arrays;
+
+/**
+ * An index of time intervals grouped by a resource key.
+ * Each key keeps its intervals in a balanced search tree ordered by start, where every node also holds the
+ * largest end in its subtree. Adding or removing an interval costs O(log n), and an overlap query only walks
+ * the subtrees that can still hold an overlapping interval, without allocating.
+ * Many intervals can be added at once with addAll, which sorts them and builds each tree in one pass.
+ */
+public class IntervalIndex {
+
+    /**
+     * Sorted intervals for every key.
+     */
+    private final IntHashMap<Intervals> byKey = new IntHashMap<>();
+
+    /**
+     * Key and start of every indexed ID, so entries can be removed by ID alone.
+     */
+    private final IntHashMap<Entry> byId = new IntHashMap<>();
+
+    /**
+     * Logic to add an interval to the index. An ID that is already indexed is moved.
+     *
+     * @param key resource the interval belongs to.
+     * @param id of the interval.
+     * @param start of the interval in epoch milliseconds, inclusive.
+     * @param end of the interval in epoch milliseconds, exclusive.
+     */
+    public void add(int key, int id, long start, long end) {
+        remove(id);
+        intervalsOf(key).insert(id, start, end);
+        byId.put(id, new Entry(key, start));
+    }
+
+    /**
+     * Logic to add many intervals to the index, such as when appointments are loaded.
+     * The intervals of each key are sorted once; a key gaining many intervals has its tree rebuilt from the
+     * merged sorted intervals, and a key gaining few has them inserted one at a time.
+     * IDs that are already indexed are moved. The batch is checked before anything changes, so a rejected batch leaves the index as it was.
+     *
+     * @param keys resource of each interval.
+     * @param ids of the intervals.
+     * @param starts of the intervals in epoch milliseconds, inclusive.
+     * @param ends of the intervals in epoch milliseconds, exclusive.
+     * @throws IllegalArgumentException throw if an ID appears more than once in the batch.
+     */
+    public void addAll(int[] keys, int[] ids, long[] starts, long[] ends) {
+        IntHashMap<Boolean> seen = new IntHashMap<>(ids.length);
+        for(int id : ids){
+            if(seen.put(id, Boolean.TRUE) != null){
+                throw new IllegalArgumentException("ID " + id + " appears more than once in one batch.");
+            }
+        }
+
+        IntHashMap<Batch> batches = new IntHashMap<>();
+        Batch[] order = new Batch[4];
+        int batchCount = 0;
+        for(int i = 0; i < ids.length; i++){
+            remove(ids[i]);
+            Batch batch = batches.get(keys[i]);
+            if(batch == null){
+                batch = new Batch(keys[i]);
+                batches.put(keys[i], batch);
+                if(batchCount == order.length){
+                    order = Arrays.copyOf(order, batchCount * 2);
+                }
+                order[batchCount++] = batch;
+            }
+            batch.add(ids[i], starts[i], ends[i]);
+            byId.put(ids[i], new Entry(keys[i], starts[i]));
+        }
+
+        for(int b = 0; b < batchCount; b++){
+            Batch batch = order[b];
+            Intervals intervals = intervalsOf(batch.key);
+            if(batch.size * 4 >= intervals.size){
+                batch.sort();
+                intervals.rebuildWith(batch);
+            }
+            else{
+                for(int i = 0; i < batch.size; i++){
+                    intervals.insert(batch.ids[i], batch.starts[i], batch.ends[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Logic to remove an interval from the index.
+     *
+     * @param id of the interval to remove.
+     * @return true if the interval was indexed.
+     */
+    public boolean remove(int id) {
+        Entry entry = byId.remove(id);
+        if(entry == null){
+            return false;
+        }
+        Intervals intervals = byKey.get(entry.key);
+        intervals.delete(id, entry.start);
+        if(intervals.size == 0){
+            byKey.remove(entry.key);
+        }
+        return true;
+    }
+
+    /**
+     * Logic to remove every interval from the index.
+     */
+    public void clear() {
+        byKey.clear();
+        byId.clear();
+    }
+
+    /**
+     * Get the number of intervals in the index.
+     *
+     * @return number of indexed intervals.
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Logic to check if an interval overlaps any interval of a key.
+     * Intervals are half open, so one ending exactly when another starts does not overlap.
+     *
+     * @param key resource to check.
+     * @param start of the proposed interval in epoch milliseconds.
+     * @param end of the proposed interval in epoch milliseconds.
+     * @param excludeId ID to ignore, such as the appointment being updated.
+     * @return true if an overlap exists.
+     */
+    public boolean overlaps(int key, long start, long end, int excludeId) {
+        Intervals intervals = byKey.get(key);
+        return intervals != null && intervals.search(intervals.root, start, end, excludeId, true, Long.MIN_VALUE) != Long.MIN_VALUE;
+    }
+
+    /**
+     * Logic to find when the intervals of a key that overlap a proposed interval are over.
+     *
+     * @param key resource to check.
+     * @param start of the proposed interval in epoch milliseconds.
+     * @param end of the proposed interval in epoch milliseconds.
+     * @param excludeId ID to ignore.
+     * @return the latest end among the overlapping intervals, or Long.MIN_VALUE if nothing overlaps.
+     */
+    public long latestOverlappingEnd(int key, long start, long end, int excludeId) {
+        Intervals intervals = byKey.get(key);
+        return intervals == null ? Long.MIN_VALUE : intervals.search(intervals.root, start, end, excludeId, false, Long.MIN_VALUE);
+    }
+
+    /**
+     * Get the intervals of a key, creating them if the key is new.
+     *
+     * @param key resource of the intervals.
+     * @return the intervals of the key.
+     */
+    private Intervals intervalsOf(int key) {
+        Intervals intervals = byKey.get(key);
+        if(intervals == null){
+            intervals = new Intervals();
+            byKey.put(key, intervals);
+        }
+        return intervals;
+    }
+
+    /**
+     * A key's intervals as an AVL tree ordered by start, then ID, stored in parallel arrays.
+     * Each node also holds the largest end in its subtree, so searches can skip subtrees that end too early.
+     */
+    private static class Intervals {
+
+        /**
+         * Node index meaning no node.
+         */
+        private static final int NIL = -1;
+
+        /**
+         * Start of each node.
+         */
+        private long[] starts = new long[4];
+
+        /**
+         * End of each node.
+         */
+        private long[] ends = new long[4];
+
+        /**
+         * Largest end in the subtree of each node.
+         */
+        private long[] maxEnds = new long[4];
+
+        /**
+         * ID of each node.
+         */
+        private int[] ids = new int[4];
+
+        /**
+         * Left child of each node, or the next free node of a released node.
+         */
+        private int[] lefts = new int[4];
+
+        /**
+         * Right child of each node.
+         */
+        private int[] rights = new int[4];
+
+        /**
+         * Height of the subtree of each node.
+         */
+        private byte[] heights = new byte[4];
+
+        /**
+         * Root of the tree.
+         */
+        private int root = NIL;
+
+        /**
+         * Number of intervals.
+         */
+        private int size = 0;
+
+        /**
+         * Number of nodes ever handed out, including released ones.
+         */
+        private int used = 0;
+
+        /**
+         * First released node available for reuse.
+         */
+        private int free = NIL;
+
+        /**
+         * Node detached by removeMin.
+         */
+        private int detached = NIL;
+
+        /**
+         * Logic to insert an interval.
+         *
+         * @param id of the interval.
+         * @param start of the interval.
+         * @param end of the interval.
+         */
+        private void insert(int id, long start, long end) {
+            int node = allocate();
+            starts[node] = start;
+            ends[node] = end;
+            ids[node] = id;
+            lefts[node] = NIL;
+            rights[node] = NIL;
+            root = insert(root, node);
+            size++;
+        }
+
+        /**
+         * Logic to insert a node into a subtree.
+         *
+         * @param subtree to insert into.
+         * @param node to insert.
+         * @return the new root of the subtree.
+         */
+        private int insert(int subtree, int node) {
+            if(subtree == NIL){
+                update(node);
+                return node;
+            }
+            if(compare(starts[node], ids[node], subtree) < 0){
+                lefts[subtree] = insert(lefts[subtree], node);
+            }
+            else{
+                rights[subtree] = insert(rights[subtree], node);
+            }
+            return balance(subtree);
+        }
+
+        /**
+         * Logic to delete an interval.
+         *
+         * @param id of the interval.
+         * @param start of the interval, used to find it.
+         */
+        private void delete(int id, long start) {
+            root = delete(root, id, start);
+        }
+
+        /**
+         * Logic to delete an interval from a subtree.
+         *
+         * @param subtree to delete from.
+         * @param id of the interval.
+         * @param start of the interval.
+         * @return the new root of the subtree.
+         */
+        private int delete(int subtree, int id, long start) {
+            if(subtree == NIL){
+                return NIL;
+            }
+            int c = compare(start, id, subtree);
+            if(c < 0){
+                lefts[subtree] = delete(lefts[subtree], id, start);
+            }
+            else if(c > 0){
+                rights[subtree] = delete(rights[subtree], id, start);
+            }
+            else{
+                int left = lefts[subtree];
+                int right = rights[subtree];
+                release(subtree);
+                size--;
+                if(left == NIL || right == NIL){
+                    return left == NIL ? right : left;
+                }
+                // Replace the node with the first node of its right subtree.
+                int rest = removeMin(right);
+                subtree = detached;
+                lefts[subtree] = left;
+                rights[subtree] = rest;
+            }
+            return balance(subtree);
+        }
+
+        /**
+         * Logic to detach the first node of a subtree into detached.
+         *
+         * @param subtree to detach from.
+         * @return the new root of the subtree.
+         */
+        private int removeMin(int subtree) {
+            if(lefts[subtree] == NIL){
+                detached = subtree;
+                return rights[subtree];
+            }
+            lefts[subtree] = removeMin(lefts[subtree]);
+            return balance(subtree);
+        }
+
+        /**
+         * Logic to replace the tree with its intervals merged with a sorted batch, built balanced in one pass.
+         *
+         * @param batch of new intervals, sorted by start then ID.
+         */
+        private void rebuildWith(Batch batch) {
+            int total = size + batch.size;
+            long[] mergedStarts = new long[total];
+            long[] mergedEnds = new long[total];
+            int[] mergedIds = new int[total];
+
+            // Walk the tree in order while merging in the batch.
+            int[] stack = new int[64];
+            int depth = 0;
+            int node = root;
+            int b = 0;
+            int n = 0;
+            while(node != NIL || depth > 0){
+                while(node != NIL){
+                    stack[depth++] = node;
+                    node = lefts[node];
+                }
+                node = stack[--depth];
+                while(b < batch.size && compare(batch.starts[b], batch.ids[b], node) < 0){
+                    mergedStarts[n] = batch.starts[b];
+                    mergedEnds[n] = batch.ends[b];
+                    mergedIds[n++] = batch.ids[b++];
+                }
+                mergedStarts[n] = starts[node];
+                mergedEnds[n] = ends[node];
+                mergedIds[n++] = ids[node];
+                node = rights[node];
+            }
+            while(b < batch.size){
+                mergedStarts[n] = batch.starts[b];
+                mergedEnds[n] = batch.ends[b];
+                mergedIds[n++] = batch.ids[b++];
+            }
+
+            int capacity = Math.max(4, total);
+            starts = mergedStarts.length == capacity ? mergedStarts : Arrays.copyOf(mergedStarts, capacity);
+            ends = mergedEnds.length == capacity ? mergedEnds : Arrays.copyOf(mergedEnds, capacity);
+            ids = mergedIds.length == capacity ? mergedIds : Arrays.copyOf(mergedIds, capacity);
+            maxEnds = new long[capacity];
+            lefts = new int[capacity];
+            rights = new int[capacity];
+            heights = new byte[capacity];
+            used = total;
+            size = total;
+            free = NIL;
+            root = build(0, total - 1);
+        }
+
+        /**
+         * Logic to build a balanced subtree from a sorted run of nodes.
+         *
+         * @param lo first node of the run.
+         * @param hi last node of the run.
+         * @return the root of the subtree.
+         */
+        private int build(int lo, int hi) {
+            if(lo > hi){
+                return NIL;
+            }
+            int mid = (lo + hi) >>> 1;
+            lefts[mid] = build(lo, mid - 1);
+            rights[mid] = build(mid + 1, hi);
+            update(mid);
+            return mid;
+        }
+
+        /**
+         * Logic to find the latest end among the intervals of a subtree that overlap a proposed interval.
+         * A subtree is skipped when its largest end is not after the proposed start or the latest end found,
+         * and a right subtree is skipped once a node starts at or after the proposed end.
+         *
+         * @param subtree to search.
+         * @param start of the proposed interval.
+         * @param end of the proposed interval.
+         * @param excludeId ID to ignore.
+         * @param firstOnly stop at the first overlap found instead of finding the latest end.
+         * @param latest end found so far.
+         * @return the latest overlapping end, or Long.MIN_VALUE if nothing overlaps.
+         */
+        private long search(int subtree, long start, long end, int excludeId, boolean firstOnly, long latest) {
+            while(subtree != NIL && maxEnds[subtree] > start && maxEnds[subtree] > latest){
+                latest = search(lefts[subtree], start, end, excludeId, firstOnly, latest);
+                if((firstOnly && latest != Long.MIN_VALUE) || starts[subtree] >= end){
+                    break;
+                }
+                if(ends[subtree] > start && ends[subtree] > latest && ids[subtree] != excludeId){
+                    latest = ends[subtree];
+                    if(firstOnly){
+                        break;
+                    }
+                }
+                subtree = rights[subtree];
+            }
+            return latest;
+        }
+
+        /**
+         * Logic to compare an interval with a node.
+         *
+         * @param start of the interval.
+         * @param id of the interval.
+         * @param node to compare with.
+         * @return negative, zero or positive as the interval orders before, at or after the node.
+         */
+        private int compare(long start, int id, int node) {
+            return starts[node] != start ? Long.compare(start, starts[node]) : Integer.compare(id, ids[node]);
+        }
+
+        /**
+         * Logic to restore the balance of a subtree after one of its children changed.
+         *
+         * @param node root of the subtree.
+         * @return the new root of the subtree.
+         */
+        private int balance(int node) {
+            update(node);
+            int skew = height(lefts[node]) - height(rights[node]);
+            if(skew > 1){
+                if(height(lefts[lefts[node]]) < height(rights[lefts[node]])){
+                    lefts[node] = rotateLeft(lefts[node]);
+                }
+                return rotateRight(node);
+            }
+            if(skew < -1){
+                if(height(rights[rights[node]]) < height(lefts[rights[node]])){
+                    rights[node] = rotateRight(rights[node]);
+                }
+                return rotateLeft(node);
+            }
+            return node;
+        }
+
+        /**
+         * Logic to rotate a subtree right.
+         *
+         * @param node root of the subtree.
+         * @return the new root of the subtree.
+         */
+        private int rotateRight(int node) {
+            int pivot = lefts[node];
+            lefts[node] = rights[pivot];
+            rights[pivot] = node;
+            update(node);
+            update(pivot);
+            return pivot;
+        }
+
+        /**
+         * Logic to rotate a subtree left.
+         *
+         * @param node root of the subtree.
+         * @return the new root of the subtree.
+         */
+        private int rotateLeft(int node) {
+            int pivot = rights[node];
+            rights[node] = lefts[pivot];
+            lefts[pivot] = node;
+            update(node);
+            update(pivot);
+            return pivot;
+        }
+
+        /**
+         * Logic to recompute the height and largest end of a node from its children.
+         *
+         * @param node to update.
+         */
+        private void update(int node) {
+            int left = lefts[node];
+            int right = rights[node];
+            heights[node] = (byte) (1 + Math.max(height(left), height(right)));
+            long max = ends[node];
+            if(left != NIL && maxEnds[left] > max){
+                max = maxEnds[left];
+            }
+            if(right != NIL && maxEnds[right] > max){
+                max = maxEnds[right];
+            }
+            maxEnds[node] = max;
+        }
+
+        /**
+         * Get the height of a subtree.
+         *
+         * @param node root of the subtree.
+         * @return its height, 0 for no node.
+         */
+        private int height(int node) {
+            return node == NIL ? 0 : heights[node];
+        }
+
+        /**
+         * Logic to hand out a node, reusing a released one if there is one.
+         *
+         * @return the node.
+         */
+        private int allocate() {
+            if(free != NIL){
+                int node = free;
+                free = lefts[node];
+                return node;
+            }
+            if(used == starts.length){
+                int capacity = used * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                maxEnds = Arrays.copyOf(maxEnds, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                lefts = Arrays.copyOf(lefts, capacity);
+                rights = Arrays.copyOf(rights, capacity);
+                heights = Arrays.copyOf(heights, capacity);
+            }
+            return used++;
+        }
+
+        /**
+         * Logic to release a node for reuse.
+         *
+         * @param node to release.
+         */
+        private void release(int node) {
+            lefts[node] = free;
+            free = node;
+        }
+    }
+
+    /**
+     * Intervals of one key waiting to be added by addAll.
+     */
+    private static class Batch {
+
+        /**
+         * Key of the intervals.
+         */
+        private final int key;
+
+        /**
+         * Start of each interval.
+         */
+        private long[] starts = new long[8];
+
+        /**
+         * End of each interval.
+         */
+        private long[] ends = new long[8];
+
+        /**
+         * ID of each interval.
+         */
+        private int[] ids = new int[8];
+
+        /**
+         * Number of intervals.
+         */
+        private int size = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param key of the intervals.
+         */
+        private Batch(int key) {
+            this.key = key;
+        }
+
+        /**
+         * Logic to add an interval to the batch.
+         *
+         * @param id of the interval.
+         * @param start of the interval.
+         * @param end of the interval.
+         */
+        private void add(int id, long start, long end) {
+            if(size == ids.length){
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            ids[size++] = id;
+        }
+
+        /**
+         * Logic to sort the batch by start, then ID, with a bottom up merge sort of its positions.
+         */
+        private void sort() {
+            int[] order = new int[size];
+            int[] buffer = new int[size];
+            for(int i = 0; i < size; i++){
+                order[i] = i;
+            }
+            for(int width = 1; width < size; width *= 2){
+                for(int lo = 0; lo < size; lo += width * 2){
+                    int mid = Math.min(lo + width, size);
+                    int hi = Math.min(lo + width * 2, size);
+                    int a = lo;
+                    int b = mid;
+                    for(int k = lo; k < hi; k++){
+                        if(b >= hi || (a < mid && !before(order[b], order[a]))){
+                            buffer[k] = order[a++];
+                        }
+                        else{
+                            buffer[k] = order[b++];
+                        }
+                    }
+                }
+                int[] swap = order;
+                order = buffer;
+                buffer = swap;
+            }
+
+            long[] sortedStarts = new long[size];
+            long[] sortedEnds = new long[size];
+            int[] sortedIds = new int[size];
+            for(int i = 0; i < size; i++){
+                sortedStarts[i] = starts[order[i]];
+                sortedEnds[i] = ends[order[i]];
+                sortedIds[i] = ids[order[i]];
+            }
+            starts = sortedStarts;
+            ends = sortedEnds;
+            ids = sortedIds;
+        }
+
+        /**
+         * Logic to check if one interval of the batch orders before another.
+         *
+         * @param a position of the first interval.
+         * @param b position of the second interval.
+         * @return true if a orders strictly before b.
+         */
+        private boolean before(int a, int b) {
+            return starts[a] != starts[b] ? starts[a] < starts[b] : ids[a] < ids[b];
+        }
+    }
+
+    /**
+     * Where an indexed ID is stored.
+     */
+    private static class Entry {
+
+        /**
+         * Key of the interval.
+         */
+        private final int key;
+
+        /**
+         * Start of the interval.
+         */
+        private final long start;
+
+        /**
+         * Constructor.
+         *
+         * @param key of the interval.
+         * @param start of the interval.
+         */
+        private Entry(int key, long start) {
+            this.key = key;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+/**
+ * A Reference Snapshot class for saving the countries, first level divisions and contacts between launches.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.Contact;
+import model.Country;
+import model.FirstLevelDivision;
+import model.Report;
+import model.TransformedCustomer;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+/**
+ * A Reference Snapshot class for saving the countries, first level divisions and contacts between launches.
+ * The tables are written to a compact binary file along with their watermark from SnapshotDAO.
+ * At startup the file is read and loaded instead of querying the database, then checked against
+ * the database in the background and refreshed only if the watermark changed.
+ */
+public class ReferenceSnapshot {
+
+    /**
+     * Location of the snapshot file, in the application's folder in the user's home directory.
+     */
+    private static final Path snapshotFile = Paths.get(System.getProperty("user.home"), ".scheduling-app", "reference_snapshot.bin");
+
+    /**
+     * Marker at the start of every snapshot file.
+     */
+    private static final int magic = 0x52534E50;
+
+    /**
+     * Layout version of the snapshot file, increased whenever the layout changes.
+     */
+    private static final int version = 1;
+
+    /**
+     * Watermark of the reference tables currently loaded from a snapshot file, null if they came from the database.
+     */
+    private static long[] loadedWatermark;
+
+    /**
+     * Watermark of the tables when the snapshot was taken.
+     */
+    private final long[] watermark;
+
+    /**
+     * Countries in the snapshot.
+     */
+    private final ObservableList<Country> countries;
+
+    /**
+     * First level divisions in the snapshot.
+     */
+    private final ObservableList<FirstLevelDivision> divisions;
+
+    /**
+     * Contacts in the snapshot.
+     */
+    private final ObservableList<Contact> contacts;
+
+    /**
+     * Constructor.
+     *
+     * @param watermark of the tables.
+     * @param countries of the snapshot.
+     * @param divisions of the snapshot.
+     * @param contacts of the snapshot.
+     */
+    private ReferenceSnapshot(long[] watermark, ObservableList<Country> countries, ObservableList<FirstLevelDivision> divisions,
+                              ObservableList<Contact> contacts){
+        this.watermark = watermark;
+        this.countries = countries;
+        this.divisions = divisions;
+        this.contacts = contacts;
+    }
+
+    /**
+     * Logic to load the reference tables into their containers, from the snapshot file if there is a usable one,
+     * otherwise from the database, in which case a new snapshot file is written.
+     *
+     * @return true if the snapshot file was used.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static boolean load() throws SQLException {
+        ReferenceSnapshot snapshot = read();
+        if(snapshot != null){
+            snapshot.apply();
+            loadedWatermark = snapshot.watermark;
+            return true;
+        }
+        snapshot = fromDatabase();
+        snapshot.apply();
+        snapshot.write();
+        return false;
+    }
+
+    /**
+     * Logic to check the reference tables loaded from the snapshot file against the database in the background.
+     * If they are stale, the tables are read again, the snapshot file is replaced and the containers are refreshed
+     * on the JavaFX application thread.
+     */
+    public static void validateInBackground(){
+        long[] expected = loadedWatermark;
+        if(expected == null){
+            return;
+        }
+        AsyncDAO.submit(() -> {
+            if(Arrays.equals(SnapshotDAO.selectReferenceWatermark(), expected)){
+                return null;
+            }
+            ReferenceSnapshot fresh = fromDatabase();
+            fresh.write();
+            return fresh;
+        }).whenCompleteAsync((fresh, e) -> {
+            if(e != null){
+                System.out.println("Error:" + AsyncDAO.unwrap(e).getMessage());
+                return;
+            }
+            loadedWatermark = null;
+            if(fresh != null){
+                fresh.apply();
+                try{
+                    TransformedCustomer.setAllTransformedCustomers();
+                }
+                catch(SQLException ex){
+                    System.out.println("Error:" + ex.getMessage());
+                }
+            }
+        }, AsyncDAO.fxThread);
+    }
+
+    /**
+     * Logic to read the reference tables from the database.
+     * The watermark is read first, so a change made while the tables are read makes the snapshot stale rather than wrong.
+     *
+     * @return a snapshot of the database.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    private static ReferenceSnapshot fromDatabase() throws SQLException {
+        long[] watermark = SnapshotDAO.selectReferenceWatermark();
+        return new ReferenceSnapshot(watermark, CountryDAO.select(), FirstLevelDivisionDAO.select(), ContactDAO.select());
+    }
+
+    /**
+     * Logic to put the snapshot into the Country, FirstLevelDivision and Contact containers.
+     */
+    private void apply(){
+        Country.setAllCountries(countries);
+        FirstLevelDivision.setAllFirstLevelDivisions(divisions);
+        Contact.setAllContacts(contacts);
+        // The contact schedule shows contact names.
+        Report.invalidate();
+    }
+
+    /**
+     * Logic to read the snapshot file. The file is small, so it is read into memory in one call and the file is
+     * not held open, leaving write free to replace it.
+     * Every count and length is checked against the bytes left before it is used, so a damaged file is reported as
+     * unusable, and load rebuilds it from the database, instead of allocating whatever the file claims.
+     *
+     * @return the snapshot, or null if there is no file or it cannot be used.
+     */
+    private static ReferenceSnapshot read(){
+        try{
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+            if(buffer.getInt() != magic || buffer.getInt() != version){
+                return null;
+            }
+            long[] watermark = new long[6];
+            for(int i = 0; i < watermark.length; i++){
+                watermark[i] = buffer.getLong();
+            }
+
+            int countryCount = getCount(buffer, 32);
+            ObservableList<Country> countries = FXCollections.observableArrayList();
+            for(int i = 0; i < countryCount; i++){
+                countries.add(new Country(buffer.getInt(), getString(buffer), getTimestamp(buffer), getString(buffer),
+                        getTimestamp(buffer), getString(buffer)));
+            }
+
+            int divisionCount = getCount(buffer, 36);
+            ObservableList<FirstLevelDivision> divisions = FXCollections.observableArrayList();
+            for(int i = 0; i < divisionCount; i++){
+                divisions.add(new FirstLevelDivision(buffer.getInt(), getString(buffer), getTimestamp(buffer), getString(buffer),
+                        getTimestamp(buffer), getString(buffer), buffer.getInt()));
+            }
+
+            int contactCount = getCount(buffer, 12);
+            ObservableList<Contact> contacts = FXCollections.observableArrayList();
+            for(int i = 0; i < contactCount; i++){
+                contacts.add(new Contact(buffer.getInt(), getString(buffer), getString(buffer)));
+            }
+            if(buffer.hasRemaining()){
+                throw new IllegalArgumentException("Snapshot has " + buffer.remaining() + " unexpected bytes at the end.");
+            }
+            return new ReferenceSnapshot(watermark, countries, divisions, contacts);
+        }
+        catch(NoSuchFileException e){
+            return null;
+        }
+        catch(IOException | BufferUnderflowException | IllegalArgumentException e){
+            System.out.println("Error:" + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Logic to write the snapshot file. A temporary file is written and moved into place,
+     * so a failed write never leaves a partial snapshot behind.
+     */
+    private void write(){
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try{
+            Files.createDirectories(snapshotFile.getParent());
+        }
+        catch(IOException e){
+            System.out.println("Error:" + e.getMessage());
+            return;
+        }
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))){
+            out.writeInt(magic);
+            out.writeInt(version);
+            for(long value : watermark){
+                out.writeLong(value);
+            }
+
+            out.writeInt(countries.size());
+            for(Country c : countries){
+                out.writeInt(c.getId());
+                putString(out, c.getName());
+                putTimestamp(out, c.getCreatedDate());
+                putString(out, c.getCreatedBy());
+                putTimestamp(out, c.getLastUpdate());
+                putString(out, c.getLastUpdatedBy());
+            }
+
+            out.writeInt(divisions.size());
+            for(FirstLevelDivision fld : divisions){
+                out.writeInt(fld.getId());
+                putString(out, fld.getDivision());
+                putTimestamp(out, fld.getCreatedDate());
+                putString(out, fld.getCreatedBy());
+                putTimestamp(out, fld.getLastUpdate());
+                putString(out, fld.getLastUpdatedBy());
+                out.writeInt(fld.getCountryID());
+            }
+
+            out.writeInt(contacts.size());
+            for(Contact c : contacts){
+                out.writeInt(c.getId());
+                putString(out, c.getName());
+                putString(out, c.getEmail());
+            }
+        }
+        catch(IOException e){
+            System.out.println("Error:" + e.getMessage());
+            return;
+        }
+
+        try{
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(IOException e){
+            System.out.println("Error:" + e.getMessage());
+        }
+    }
+
+    /**
+     * Logic to write a String as its UTF-8 length and bytes, -1 for null.
+     *
+     * @param out stream to write to.
+     * @param value to write.
+     * @throws IOException thrown if the stream cannot be written.
+     */
+    private static void putString(DataOutputStream out, String value) throws IOException {
+        if(value == null){
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Logic to read a String written by putString.
+     *
+     * @param buffer to read from.
+     * @return the String, or null.
+     */
+    private static String getString(ByteBuffer buffer){
+        int length = buffer.getInt();
+        if(length == -1){
+            return null;
+        }
+        if(length < 0 || length > buffer.remaining()){
+            throw new IllegalArgumentException("Snapshot string of " + length + " bytes does not fit the " + buffer.remaining() + " bytes left.");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Logic to read the number of rows of a table.
+     *
+     * @param buffer to read from.
+     * @param minRowBytes fewest bytes a row of the table takes.
+     * @return the number of rows.
+     * @throws IllegalArgumentException throw if that many rows cannot fit in the bytes left.
+     */
+    private static int getCount(ByteBuffer buffer, int minRowBytes){
+        int count = buffer.getInt();
+        if(count < 0 || (long) count * minRowBytes > buffer.remaining()){
+            throw new IllegalArgumentException("Snapshot count of " + count + " rows does not fit the " + buffer.remaining() + " bytes left.");
+        }
+        return count;
+    }
+
+    /**
+     * Logic to write a Timestamp as epoch milliseconds, Long.MIN_VALUE for null.
+     *
+     * @param out stream to write to.
+     * @param value to write.
+     * @throws IOException thrown if the stream cannot be written.
+     */
+    private static void putTimestamp(DataOutputStream out, Timestamp value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : value.getTime());
+    }
+
+    /**
+     * Logic to read a Timestamp written by putTimestamp.
+     *
+     * @param buffer to read from.
+     * @return the Timestamp, or null.
+     */
+    private static Timestamp getTimestamp(ByteBuffer buffer){
+        long millis = buffer.getLong();
+        return millis == Long.MIN_VALUE ? null : new Timestamp(millis);
+    }
+}
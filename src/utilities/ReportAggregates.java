@@ -0,0 +1,223 @@
+/**
+ * A Report Aggregates class that keeps the totals behind the appointment reports current as appointments change.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import interfaces.ReportSink;
+import model.TypeMonthCount;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Report Aggregates class that keeps the totals behind the appointment reports current as appointments change.
+ * Appointments are counted by type and month of their start, and their minutes are summed by customer.
+ * Adding or removing an appointment costs O(1), so the reports can be written without a query.
+ */
+public class ReportAggregates {
+
+    /**
+     * Number of appointments for each type and month.
+     */
+    private final Map<TypeMonth, int[]> countsByTypeMonth = new HashMap<>();
+
+    /**
+     * Number of appointments and their total minutes for each customer ID.
+     */
+    private final Map<Integer, long[]> totalsByCustomer = new HashMap<>();
+
+    /**
+     * What each counted appointment added, so it can be taken back out by ID alone.
+     */
+    private final IntHashMap<Contribution> byId = new IntHashMap<>();
+
+    /**
+     * Logic to count an appointment. An appointment that is already counted is counted again with its new values.
+     *
+     * @param appointmentId ID of the appointment.
+     * @param typeCode type of the appointment as its code in the shared StringDictionary.
+     * @param start of the appointment in UTC epoch milliseconds.
+     * @param end of the appointment in UTC epoch milliseconds.
+     * @param customerId customer of the appointment.
+     */
+    public void add(int appointmentId, int typeCode, long start, long end, int customerId) {
+        remove(appointmentId);
+        // A missing type is counted with the empty type, as the report shows both the same way.
+        if(typeCode == StringDictionary.NULL){
+            typeCode = StringDictionary.shared.code("");
+        }
+        // Months are counted on the local calendar, as the reports are read.
+        Contribution contribution = new Contribution(new TypeMonth(typeCode, monthIndex(YearMonth.from(TimeManager.toLocalDate(start)))),
+                customerId, (end - start) / 60_000);
+        byId.put(appointmentId, contribution);
+
+        countsByTypeMonth.computeIfAbsent(contribution.typeMonth, key -> new int[1])[0]++;
+
+        long[] totals = totalsByCustomer.computeIfAbsent(customerId, key -> new long[2]);
+        totals[0]++;
+        totals[1] += contribution.minutes;
+    }
+
+    /**
+     * Logic to stop counting an appointment.
+     *
+     * @param appointmentId ID of the appointment.
+     */
+    public void remove(int appointmentId) {
+        Contribution contribution = byId.remove(appointmentId);
+        if(contribution == null){
+            return;
+        }
+        int[] count = countsByTypeMonth.get(contribution.typeMonth);
+        if(--count[0] == 0){
+            countsByTypeMonth.remove(contribution.typeMonth);
+        }
+        long[] totals = totalsByCustomer.get(contribution.customerId);
+        totals[1] -= contribution.minutes;
+        if(--totals[0] == 0){
+            totalsByCustomer.remove(contribution.customerId);
+        }
+    }
+
+    /**
+     * Logic to stop counting every appointment.
+     */
+    public void clear() {
+        countsByTypeMonth.clear();
+        totalsByCustomer.clear();
+        byId.clear();
+    }
+
+    /**
+     * Logic to get the number of appointments of each type in each month of a range.
+     *
+     * @param from first month to count, or null to start with the earliest appointment.
+     * @param to last month to count, or null to end with the latest appointment.
+     * @return the rows ordered by type, then month.
+     */
+    public List<TypeMonthCount> typeMonthCounts(YearMonth from, YearMonth to) {
+        int first = from == null ? Integer.MIN_VALUE : monthIndex(from);
+        int last = to == null ? Integer.MAX_VALUE : monthIndex(to);
+        List<TypeMonthCount> rows = new ArrayList<>();
+        for(Map.Entry<TypeMonth, int[]> entry : countsByTypeMonth.entrySet()){
+            int month = entry.getKey().month;
+            if(month >= first && month <= last){
+                String type = StringDictionary.shared.string(entry.getKey().typeCode);
+                rows.add(new TypeMonthCount(type == null ? "" : type, YearMonth.of(month / 12, month % 12 + 1), entry.getValue()[0]));
+            }
+        }
+        rows.sort(Comparator.comparing(TypeMonthCount::getType).thenComparing(TypeMonthCount::getMonth));
+        return rows;
+    }
+
+    /**
+     * Logic to write the number of appointments by type and month, ordered by type then month.
+     *
+     * @param sink to write the report to.
+     */
+    public void writeTypeMonthReport(ReportSink sink) {
+        ReportDAO.writeTypeMonthReport(typeMonthCounts(null, null), sink);
+    }
+
+    /**
+     * Logic to write the total minutes of appointments by customer, most minutes first.
+     *
+     * @param sink to write the report to.
+     */
+    public void writeCustomerTotalTimeReport(ReportSink sink) {
+        List<Map.Entry<Integer, long[]>> rows = new ArrayList<>(totalsByCustomer.entrySet());
+        rows.sort(Comparator.comparingLong((Map.Entry<Integer, long[]> row) -> -row.getValue()[1]).thenComparing(Map.Entry.comparingByKey()));
+        StringBuilder buffer = new StringBuilder("Customer's Total Schedule Time\n").append("Customer ID - Total Time(Minutes)\n");
+        for(Map.Entry<Integer, long[]> row : rows){
+            buffer.append(row.getKey()).append(" - ").append((float) row.getValue()[1]).append('\n');
+        }
+        sink.write(buffer);
+    }
+
+    /**
+     * Get the number of months from year 0 to a month, so months compare and hash as ints.
+     *
+     * @param month to number.
+     * @return the month's index.
+     */
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    /**
+     * An appointment type and the month it starts in, both as ints.
+     */
+    private static final class TypeMonth {
+
+        /**
+         * Type of the appointments as its code in the shared StringDictionary.
+         */
+        private final int typeCode;
+
+        /**
+         * Index of the month the appointments start in.
+         */
+        private final int month;
+
+        /**
+         * Constructor.
+         *
+         * @param typeCode of the appointments.
+         * @param month index the appointments start in.
+         */
+        private TypeMonth(int typeCode, int month) {
+            this.typeCode = typeCode;
+            this.month = month;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TypeMonth && ((TypeMonth) other).typeCode == typeCode && ((TypeMonth) other).month == month;
+        }
+
+        @Override
+        public int hashCode() {
+            return typeCode * 31 + month;
+        }
+    }
+
+    /**
+     * What one appointment added to the totals.
+     */
+    private static final class Contribution {
+
+        /**
+         * Type and month the appointment was counted under.
+         */
+        private final TypeMonth typeMonth;
+
+        /**
+         * Customer the minutes were added to.
+         */
+        private final int customerId;
+
+        /**
+         * Minutes added.
+         */
+        private final long minutes;
+
+        /**
+         * Constructor.
+         *
+         * @param typeMonth the appointment was counted under.
+         * @param customerId the minutes were added to.
+         * @param minutes added.
+         */
+        private Contribution(TypeMonth typeMonth, int customerId, long minutes) {
+            this.typeMonth = typeMonth;
+            this.customerId = customerId;
+            this.minutes = minutes;
+        }
+    }
+}
@@ -7,16 +7,48 @@
 package utilities;
 
 import DataBaseConnection.JDBC;
+import interfaces.ReportSink;
+import model.TypeMonthCount;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * A Report Data Access Object class for reports.
+ *
+ * Rows are formatted into one reusable buffer, which is handed to a ReportSink whenever it fills,
+ * so a report costs time in proportion to its length and can be shown while it is still being read.
  */
 public class ReportDAO {
 
+    /**
+     * Number of characters collected before they are written to the sink.
+     */
+    private static final int chunkChars = 8192;
+
+    /**
+     * Number of rows to fetch from the server at a time.
+     */
+    private static final int fetchSize = 500;
+
+    /**
+     * Query of the contact schedule report, shared with ExportDAO.
+     */
+    static final String contactScheduleSql = "SELECT Contact_Name, Appointment_ID, Title, Type, Description, Start, End, Customer_ID FROM appointments INNER JOIN contacts ON Contacts.Contact_ID=Appointments.Contact_ID Order BY Contact_Name, Start";
+
+    /**
+     * Query of the customer total time report, shared with ExportDAO.
+     * Whole minutes are counted per appointment, as ReportAggregates counts them, so appointments past midnight are not negative.
+     */
+    static final String customerTotalTimeSql = "SELECT  Customer_ID, SUM(TIMESTAMPDIFF(MINUTE, Start, End)) AS Time FROM appointments GROUP BY customer_ID ORDER BY TIME desc, Customer_ID;";
+
 
     /**
      * Logic to generate the customers report by type and month.
@@ -25,17 +57,85 @@ public class ReportDAO {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static String customersByTypeMonth() throws SQLException {
-        String report = "Quantity - Type - Month\n";
-        String sql = "SELECT COUNT(*) AS Quantity, Type , month(start) AS Month  FROM appointments group by Type, Start";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next()){
-            int quantity = rs.getInt("Quantity");
-            String type = rs.getString("Type");
-            int month = rs.getInt("Month");
-            report += quantity + " - " + type + " - " + month + "\n\n";
+        StringBuilder report = new StringBuilder();
+        customersByTypeMonth(ReportSinks.collect(report));
+        return report.toString();
+    }
+
+
+    /**
+     * Logic to write the customers report by type and month to a sink.
+     *
+     * @param sink to write the report to.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static void customersByTypeMonth(ReportSink sink) throws SQLException {
+        writeTypeMonthReport(selectTypeMonthCounts(null, null), sink);
+    }
+
+
+    /**
+     * Logic to count the appointments of each type in each month.
+     * Appointments are filtered on the bare Start column, so the Start index limits the rows read to the range.
+     * Months are taken on this computer's calendar, the same as ReportAggregates, rather than the server's: the
+     * database counts appointments per quarter hour of Start, which no time zone offset splits, and each quarter
+     * hour is then added to its local month.
+     *
+     * @param from first month to count, or null to start with the earliest appointment.
+     * @param to last month to count, or null to end with the latest appointment.
+     * @return the rows ordered by type, then month.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static List<TypeMonthCount> selectTypeMonthCounts(YearMonth from, YearMonth to) throws SQLException {
+        String sql = "SELECT Type, Start - INTERVAL (MINUTE(Start) % 15) MINUTE - INTERVAL SECOND(Start) SECOND AS Slot, COUNT(*) AS Quantity"
+                + " FROM appointments WHERE TRUE"
+                + (from == null ? "" : " AND Start >= ?")
+                + (to == null ? "" : " AND Start < ?")
+                + " GROUP BY Type, Slot";
+        Map<String, Map<YearMonth, Integer>> counts = new TreeMap<>();
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            int index = 1;
+            if(from != null){
+                ps.setTimestamp(index++, Timestamp.valueOf(from.atDay(1).atStartOfDay()));
+            }
+            if(to != null){
+                ps.setTimestamp(index, Timestamp.valueOf(to.plusMonths(1).atDay(1).atStartOfDay()));
+            }
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    String type = rs.getString("Type");
+                    YearMonth month = YearMonth.from(TimeManager.toLocalDate(rs.getTimestamp("Slot").getTime()));
+                    counts.computeIfAbsent(type == null ? "" : type, t -> new TreeMap<>()).merge(month, rs.getInt("Quantity"), Integer::sum);
+                }
+            }
+        }
+        List<TypeMonthCount> rows = new ArrayList<>();
+        for(Map.Entry<String, Map<YearMonth, Integer>> type : counts.entrySet()){
+            for(Map.Entry<YearMonth, Integer> month : type.getValue().entrySet()){
+                rows.add(new TypeMonthCount(type.getKey(), month.getKey(), month.getValue()));
+            }
         }
-        return report;
+        return rows;
+    }
+
+
+    /**
+     * Logic to write rows of the customers report by type and month to a sink.
+     *
+     * @param rows of the report.
+     * @param sink to write the report to.
+     */
+    public static void writeTypeMonthReport(List<TypeMonthCount> rows, ReportSink sink){
+        StringBuilder buffer = new StringBuilder(chunkChars * 2);
+        buffer.append("Quantity - Type - Month\n");
+        for(TypeMonthCount row : rows){
+            buffer.append(row.getQuantity()).append(" - ").append(row.getType()).append(" - ").append(row.getMonth()).append("\n\n");
+            if(buffer.length() >= chunkChars){
+                write(buffer, sink);
+            }
+        }
+        write(buffer, sink);
     }
 
 
@@ -46,23 +146,44 @@ public class ReportDAO {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static String contactSchedule() throws SQLException {
-        String report = "Contact Schedule\n" + "Name - Appointment ID - Title - Type - Description - Start - End - Customer ID\n\n";
-        String sql = "SELECT Contact_Name, Appointment_ID, Title, Type, Description, Start, End, Customer_ID FROM appointments INNER JOIN contacts ON Contacts.Contact_ID=Appointments.Contact_ID Order BY Contact_Name, Start";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next()){
-            String name = rs.getString("Contact_Name");
-            int appointmentID = rs.getInt("Appointment_ID");
-            String title = rs.getString("Title");
-            String type = rs.getString("Type");
-            String description = rs.getString("Description");
-            Timestamp start = rs.getTimestamp("Start");
-            Timestamp end = rs.getTimestamp("End");
-            int customerID = rs.getInt("Customer_ID");
-
-            report += name + " - " + appointmentID + " - " + title  + " - " + type + " - " + description + " - " + start + " - " + end + " - " + customerID + "\n";
+        StringBuilder report = new StringBuilder();
+        contactSchedule(ReportSinks.collect(report));
+        return report.toString();
+    }
+
+
+    /**
+     * Logic to write the contact's schedule to a sink.
+     * Rows are read through a server side cursor, so long schedules are never held in memory at once.
+     *
+     * @param sink to write the report to.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static void contactSchedule(ReportSink sink) throws SQLException {
+        StringBuilder buffer = new StringBuilder(chunkChars * 2);
+        buffer.append("Contact Schedule\n").append("Name - Appointment ID - Title - Type - Description - Start - End - Customer ID\n\n");
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(contactScheduleSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)){
+            ps.setFetchSize(fetchSize);
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    String name = rs.getString("Contact_Name");
+                    int appointmentID = rs.getInt("Appointment_ID");
+                    String title = rs.getString("Title");
+                    String type = rs.getString("Type");
+                    String description = rs.getString("Description");
+                    Timestamp start = rs.getTimestamp("Start");
+                    Timestamp end = rs.getTimestamp("End");
+                    int customerID = rs.getInt("Customer_ID");
+
+                    buffer.append(name).append(" - ").append(appointmentID).append(" - ").append(title).append(" - ").append(type)
+                            .append(" - ").append(description).append(" - ").append(start).append(" - ").append(end)
+                            .append(" - ").append(customerID).append('\n');
+                    writeIfFull(buffer, sink);
+                }
+            }
         }
-        return report;
+        write(buffer, sink);
     }
 
 
@@ -73,24 +194,66 @@ public class ReportDAO {
      * @throws SQLException throw if SQL statement fails to resolve.
      */
     public static String customerTotalTime() throws SQLException {
-        String report = "Customer's Total Schedule Time\n" + "Customer ID - Total Time(Minutes)\n";
-        String sql = "SELECT  Customer_ID, SUM(time_to_sec(end)-time_to_sec(start)) / 60 AS Time FROM appointments GROUP BY customer_ID ORDER BY TIME desc;";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next()){
-            int id = rs.getInt("Customer_ID");
-            float time = rs.getFloat("Time");
+        StringBuilder report = new StringBuilder();
+        customerTotalTime(ReportSinks.collect(report));
+        return report.toString();
+    }
 
 
-            report += id + " - " + time + "\n";
+    /**
+     * Logic to write customer's total schedule time report to a sink.
+     *
+     * @param sink to write the report to.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static void customerTotalTime(ReportSink sink) throws SQLException {
+        StringBuilder buffer = new StringBuilder(chunkChars * 2);
+        buffer.append("Customer's Total Schedule Time\n").append("Customer ID - Total Time(Minutes)\n");
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(customerTotalTimeSql)){
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    int id = rs.getInt("Customer_ID");
+                    float time = rs.getFloat("Time");
+
+
+                    buffer.append(id).append(" - ").append(time).append('\n');
+                    writeIfFull(buffer, sink);
+                }
+            }
         }
-        return report;
+        write(buffer, sink);
     }
 
 
+    /**
+     * Logic to write the buffer to the sink once it holds a full chunk.
+     * Stops the report with an SQLException if the thread generating it was interrupted, such as by cancelling it.
+     *
+     * @param buffer of formatted rows.
+     * @param sink to write to.
+     * @throws SQLException throw if the report was cancelled.
+     */
+    private static void writeIfFull(StringBuilder buffer, ReportSink sink) throws SQLException {
+        if(buffer.length() >= chunkChars){
+            if(Thread.currentThread().isInterrupted()){
+                throw new SQLException("Report cancelled.");
+            }
+            write(buffer, sink);
+        }
+    }
 
 
-
+    /**
+     * Logic to write the buffer to the sink and empty it for reuse.
+     *
+     * @param buffer of formatted rows.
+     * @param sink to write to.
+     */
+    private static void write(StringBuilder buffer, ReportSink sink){
+        if(buffer.length() > 0){
+            sink.write(buffer);
+            buffer.setLength(0);
+        }
+    }
 }
-
-
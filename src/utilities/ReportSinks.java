@@ -0,0 +1,93 @@
+/**
+ * A Report Sinks class with the places a report can be written to.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import interfaces.ReportSink;
+import javafx.application.Platform;
+import javafx.scene.control.TextArea;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A Report Sinks class with the places a report can be written to.
+ */
+public class ReportSinks {
+
+    /**
+     * Logic to make a sink that appends to a TextArea on the JavaFX application thread, so the report shows as it is generated.
+     *
+     * @param area to append the report to.
+     * @param current checked on the JavaFX application thread before each append, false once the report is no longer wanted.
+     * @return the sink.
+     */
+    public static ReportSink textArea(TextArea area, BooleanSupplier current){
+        return chunk -> {
+            String text = chunk.toString();
+            Platform.runLater(() -> {
+                if(current.getAsBoolean()){
+                    area.appendText(text);
+                }
+            });
+        };
+    }
+
+    /**
+     * Logic to make a sink that writes to a UTF-8 text file, replacing the file if it exists.
+     *
+     * @param file to write the report to.
+     * @return the sink, which must be closed to finish the file.
+     * @throws IOException thrown if the file cannot be opened.
+     */
+    public static ReportSink file(Path file) throws IOException {
+        Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        return new ReportSink() {
+            @Override
+            public void write(CharSequence chunk){
+                try{
+                    writer.append(chunk);
+                }
+                catch(IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void close(){
+                try{
+                    writer.close();
+                }
+                catch(IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Logic to make a sink that prints to standard output.
+     *
+     * @return the sink.
+     */
+    public static ReportSink stdout(){
+        return chunk -> System.out.append(chunk);
+    }
+
+    /**
+     * Logic to make a sink that collects the report in a StringBuilder.
+     *
+     * @param builder to append the report to.
+     * @return the sink.
+     */
+    public static ReportSink collect(StringBuilder builder){
+        return builder::append;
+    }
+}
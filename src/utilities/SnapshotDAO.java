@@ -0,0 +1,55 @@
+/**
+ * A Snapshot Data Access Object class for checking if saved reference tables are current.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import DataBaseConnection.JDBC;
+import java.sql.*;
+
+/**
+ * A Snapshot Data Access Object class for checking if saved reference tables are current.
+ */
+public class SnapshotDAO {
+
+    /**
+     * Logic to select the watermark of the countries, first level divisions and contacts tables.
+     * Countries and divisions are described by their row count and latest Last_Update.
+     * Contacts have no Last_Update column, so they are described by their row count and a sum of row checksums.
+     *
+     * @return the watermark, any change to the tables changes at least one value.
+     * @throws SQLException throw if SQL statement fails to resolve.
+     */
+    public static long[] selectReferenceWatermark() throws SQLException {
+        String sql = "SELECT (SELECT COUNT(*) FROM countries), (SELECT MAX(Last_Update) FROM countries), "
+                + "(SELECT COUNT(*) FROM first_level_divisions), (SELECT MAX(Last_Update) FROM first_level_divisions), "
+                + "(SELECT COUNT(*) FROM contacts), "
+                + "(SELECT COALESCE(SUM(CRC32(CONCAT_WS('|', Contact_ID, Contact_Name, Email))), 0) FROM contacts)";
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                rs.next();
+                long[] watermark = new long[6];
+                watermark[0] = rs.getLong(1);
+                watermark[1] = toMillis(rs.getTimestamp(2));
+                watermark[2] = rs.getLong(3);
+                watermark[3] = toMillis(rs.getTimestamp(4));
+                watermark[4] = rs.getLong(5);
+                watermark[5] = rs.getLong(6);
+                return watermark;
+            }
+        }
+    }
+
+    /**
+     * Logic to convert a Timestamp that may be null to epoch milliseconds.
+     *
+     * @param timestamp to convert.
+     * @return epoch milliseconds, or Long.MIN_VALUE for null.
+     */
+    private static long toMillis(Timestamp timestamp){
+        return timestamp == null ? Long.MIN_VALUE : timestamp.getTime();
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * A String Dictionary class for storing repeated Strings once and referring to them by int code.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A String Dictionary class for storing repeated Strings once and referring to them by int code.
+ * Codes are handed out in order from 1 and never change, with 0 standing for null.
+ * Adding a String is synchronized, while looking a code up takes no lock, so codes can be read from any thread.
+ */
+public class StringDictionary {
+
+    /**
+     * Code of null.
+     */
+    public static final int NULL = 0;
+
+    /**
+     * Dictionary shared by the models for their low cardinality Strings, such as types and user names.
+     * Each distinct value is stored once for the life of the application.
+     */
+    public static final StringDictionary shared = new StringDictionary();
+
+    /**
+     * Code of each String in the dictionary.
+     */
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+
+    /**
+     * String of each code, published to readers by size.
+     */
+    private volatile String[] strings = new String[64];
+
+    /**
+     * Number of codes handed out, including the code of null.
+     */
+    private volatile int size = 1;
+
+    /**
+     * Logic to get the code of a String, adding it to the dictionary if it is new.
+     *
+     * @param value to encode, may be null.
+     * @return the code of the String.
+     */
+    public int code(String value){
+        if(value == null){
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    /**
+     * Logic to get the code of a String without adding it.
+     *
+     * @param value to look up, may be null.
+     * @return the code of the String, or -1 if it is not in the dictionary.
+     */
+    public int find(String value){
+        if(value == null){
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Get the String of a code.
+     *
+     * @param code handed out by this dictionary.
+     * @return the String, or null for the code of null.
+     */
+    public String string(int code){
+        if(code >= size){
+            throw new IllegalArgumentException("Unknown dictionary code " + code + ".");
+        }
+        return strings[code];
+    }
+
+    /**
+     * Get the number of codes handed out, including the code of null.
+     *
+     * @return number of codes.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Logic to add a String that was not found.
+     * The String is stored before the size is raised, so a reader that sees a code always finds its String.
+     *
+     * @param value to add.
+     * @return the new code, or the existing one if another thread added it first.
+     */
+    private synchronized int add(String value){
+        Integer existing = codes.get(value);
+        if(existing != null){
+            return existing;
+        }
+        int code = size;
+        String[] current = strings;
+        if(code == current.length){
+            current = Arrays.copyOf(current, code * 2);
+        }
+        current[code] = value;
+        strings = current;
+        size = code + 1;
+        codes.put(value, code);
+        return code;
+    }
+}
@@ -17,37 +17,49 @@ public class TimeManager {
     /**
      * A static Local Time reference to the business open hours.
      */
-    private static LocalTime businessOpen = LocalTime.of(8,0);
+    private static final LocalTime businessOpen = LocalTime.of(8,0);
 
     /**
      * A static Local Time reference to the business close hours.
      */
-    private static LocalTime businessClose = LocalTime.of(22,0);
+    private static final LocalTime businessClose = LocalTime.of(22,0);
+
+    /**
+     * A static reference to the time zone the business hours are kept in.
+     */
+    public static final ZoneId businessZone = ZoneId.of("America/New_York");
 
 
     /**
-     * Logic to convert UTC timestamps to Local timestamps
-     *
-     * @param utcTS UTC Timestamp to be converted.
-     * @return Local Timestamp from UTC Timestamp.
+     * Milliseconds in a day.
      */
-    public static Timestamp fromUTCtoLocalTS(Timestamp utcTS){
-        // Convert to LocalDateTime
-        LocalDateTime inputUTCLDT = utcTS.toLocalDateTime();
+    private static final long dayMillis = 24 * 60 * 60 * 1000L;
 
-        // Convert to zoned LDT for UTC
-        ZonedDateTime inputUTCZonedLDT = ZonedDateTime.of(inputUTCLDT, ZoneId.of("UTC"));
+    /**
+     * Converter for the time zone of this computer, taken when the application starts.
+     */
+    private static final ZoneConverter localZone = ZoneConverter.of(ZoneId.systemDefault());
 
-        // Convert to zoned LDT for System default
-        ZonedDateTime outputDefaultZonedLDT = inputUTCZonedLDT.withZoneSameInstant(ZoneId.systemDefault());
+    /**
+     * Converter for the time zone the business hours are kept in.
+     */
+    private static final ZoneConverter businessZoneConverter = ZoneConverter.of(businessZone);
 
-        // Convert to LocalDateTime of system default zone ID.
-        LocalDateTime outputDefaultLDT = outputDefaultZonedLDT.toLocalDateTime();
+    /**
+     * Business hours of every day from two years before the application started to ten years after.
+     */
+    private static final BusinessCalendar businessCalendar = new BusinessCalendar(businessZone, businessOpen, businessClose,
+            LocalDate.now(businessZone).minusYears(2), 12 * 366);
 
-        // Convert back to Timestamp for the system default values.
-        Timestamp outputTS = Timestamp.valueOf(outputDefaultLDT);
 
-        return outputTS;
+    /**
+     * Logic to convert UTC timestamps to Local timestamps
+     *
+     * @param utcTS UTC Timestamp to be converted.
+     * @return Local Timestamp from UTC Timestamp.
+     */
+    public static Timestamp fromUTCtoLocalTS(Timestamp utcTS){
+        return withNanosOf(fromUTCtoLocal(utcTS.getTime()), utcTS);
     }
 
 
@@ -58,47 +70,133 @@ public class TimeManager {
      * @return UTC Timestamp from local Timestamp.
      */
     public static Timestamp fromLocalToUTCTS(Timestamp localTS){
-        // Convert to LocalDateTime
-        LocalDateTime inputDefaultLDT = localTS.toLocalDateTime();
+        return withNanosOf(fromLocalToUTC(localTS.getTime()), localTS);
+    }
 
-        // Convert to Zoned LDT for System Default
-        ZonedDateTime inputDefaultZonedLDT = ZonedDateTime.of(inputDefaultLDT, ZoneId.systemDefault());
+    /**
+     * Logic to convert Local timestamps to EST timestamps
+     *
+     * @param localTS Local Timestamp to convert to EST Timestamp.
+     * @return EST Timestamp converted from Local Timestamp.
+     */
+    public static Timestamp fromLocalToEST(Timestamp localTS){
+        return withNanosOf(fromLocalToEST(localTS.getTime()), localTS);
+    }
 
-        // Convert to Zoned LDT from System Default to UTC
-        ZonedDateTime outputUTCZonedLDT = inputDefaultZonedLDT.withZoneSameInstant(ZoneId.of("UTC"));
+    /**
+     * Logic to convert a UTC time to the local time, both as the epoch milliseconds of a Timestamp.
+     * The wall clock of the input is read as UTC and the output has the local wall clock of that instant.
+     *
+     * @param utcMillis epoch milliseconds of a Timestamp holding a UTC wall clock.
+     * @return epoch milliseconds of a Timestamp holding the local wall clock.
+     */
+    public static long fromUTCtoLocal(long utcMillis){
+        return localZone.toInstant(localZone.toLocal(localZone.toLocal(utcMillis)));
+    }
+
+    /**
+     * Logic to convert a local time to UTC, both as the epoch milliseconds of a Timestamp.
+     *
+     * @param localMillis epoch milliseconds of a Timestamp holding a local wall clock.
+     * @return epoch milliseconds of a Timestamp holding the UTC wall clock.
+     */
+    public static long fromLocalToUTC(long localMillis){
+        return localZone.toInstant(localZone.toInstant(localZone.toLocal(localMillis)));
+    }
 
-        // Convert to LDT with System Default data
-        LocalDateTime outputUTCLDT = outputUTCZonedLDT.toLocalDateTime();
+    /**
+     * Logic to convert a local time to the business time zone, both as the epoch milliseconds of a Timestamp.
+     *
+     * @param localMillis epoch milliseconds of a Timestamp holding a local wall clock.
+     * @return epoch milliseconds of a Timestamp holding the business wall clock.
+     */
+    public static long fromLocalToEST(long localMillis){
+        return localZone.toInstant(businessZoneConverter.toLocal(localZone.toInstant(localZone.toLocal(localMillis))));
+    }
 
-        // Convert to Timestamp for the System Default data.
-        Timestamp outputTS = Timestamp.valueOf(outputUTCLDT);
+    /**
+     * Logic to convert UTC times to local times in place, as fromUTCtoLocal does for one.
+     * Each step converts the whole array before the next, so sorted input reuses each table search.
+     *
+     * @param millis epoch milliseconds of Timestamps holding UTC wall clocks, replaced by the local ones.
+     */
+    public static void fromUTCtoLocal(long[] millis){
+        localZone.toLocal(millis);
+        localZone.toLocal(millis);
+        localZone.toInstant(millis);
+    }
 
-        return outputTS;
+    /**
+     * Logic to convert local times to UTC in place, as fromLocalToUTC does for one.
+     *
+     * @param millis epoch milliseconds of Timestamps holding local wall clocks, replaced by the UTC ones.
+     */
+    public static void fromLocalToUTC(long[] millis){
+        localZone.toLocal(millis);
+        localZone.toInstant(millis);
+        localZone.toInstant(millis);
     }
 
     /**
-     * Logic to convert Local timestamps to EST timestamps
+     * Get the local date of an instant.
      *
-     * @param localTS Local Timestamp to convert to EST Timestamp.
-     * @return EST Timestamp converted from Local Timestamp.
+     * @param epochMillis instant in UTC epoch milliseconds.
+     * @return the date on this computer's calendar at that instant.
      */
-    public static Timestamp fromLocalToEST(Timestamp localTS){
-        // Convert to LocalDateTime
-        LocalDateTime inputDefaultLDT = localTS.toLocalDateTime();
+    public static LocalDate toLocalDate(long epochMillis){
+        return LocalDate.ofEpochDay(Math.floorDiv(localZone.toLocal(epochMillis), dayMillis));
+    }
 
-        // Convert to Zoned LDT for the Local data
-        ZonedDateTime inputDefaultZonedLDT = ZonedDateTime.of(inputDefaultLDT, ZoneId.systemDefault());
+    /**
+     * Get the current time to the whole second, as the DATETIME columns store it.
+     * A Last_Update written this way reads back equal, so delta sync does not see the client's own write as a change.
+     *
+     * @return the current time without fractional seconds.
+     */
+    public static Timestamp now(){
+        return new Timestamp(Math.floorDiv(System.currentTimeMillis(), 1000L) * 1000L);
+    }
 
-        // Convert to Zoned LDT for EST
-        ZonedDateTime outputESTZonedLDT = inputDefaultZonedLDT.withZoneSameInstant(ZoneId.of("America/New_York"));
+    /**
+     * Get a Timestamp for epoch milliseconds, keeping the sub millisecond nanoseconds of another Timestamp.
+     *
+     * @param millis of the new Timestamp.
+     * @param nanosFrom Timestamp to copy the nanoseconds from.
+     * @return the new Timestamp.
+     */
+    private static Timestamp withNanosOf(long millis, Timestamp nanosFrom){
+        Timestamp output = new Timestamp(millis);
+        output.setNanos(nanosFrom.getNanos());
+        return output;
+    }
 
-        // Convert to LDT with EST data
-        LocalDateTime outputESTLDT = outputESTZonedLDT.toLocalDateTime();
+    /**
+     * Get the time the business opens on a day.
+     *
+     * @param day in the business time zone.
+     * @return opening time in epoch milliseconds.
+     */
+    public static long businessOpenOn(LocalDate day){
+        return businessCalendar.openOn(day);
+    }
 
-        // Convert to Timestamp for the EST
-        Timestamp outputTS = Timestamp.valueOf(outputESTLDT);
+    /**
+     * Get the time the business closes on a day.
+     *
+     * @param day in the business time zone.
+     * @return closing time in epoch milliseconds.
+     */
+    public static long businessCloseOn(LocalDate day){
+        return businessCalendar.closeOn(day);
+    }
 
-        return outputTS;
+    /**
+     * Get the calendar of business hours, for checking many intervals at once.
+     *
+     * @return the business calendar.
+     */
+    public static BusinessCalendar getBusinessCalendar(){
+        return businessCalendar;
     }
 
     /**
@@ -125,26 +223,6 @@ public class TimeManager {
      * @return Boolean representing if appointment is within business hours or not.
      */
     public static boolean checkWithinBusinessHours(Timestamp start, Timestamp end){
-        // Convert Timestamps to EST
-        Timestamp startEST = TimeManager.fromLocalToEST(start);
-        Timestamp endEST = TimeManager.fromLocalToEST(end);
-
-        // Extract the Date
-        LocalDate startDay = startEST.toLocalDateTime().toLocalDate();
-        LocalTime startTime = startEST.toLocalDateTime().toLocalTime();
-
-        // Extract the Time.
-        LocalDate endDay = endEST.toLocalDateTime().toLocalDate();
-        LocalTime endTime = endEST.toLocalDateTime().toLocalTime();
-
-        // Check that the days are the same.
-        if(startDay.equals(endDay)){
-            // Check that the start time and end time are within the open and close hours.
-            if(!startTime.isBefore(businessOpen) && !endTime.isAfter(businessClose)){
-                return true;
-            }
-        }
-
-        return false;
+        return businessCalendar.isWithinHours(start.getTime(), end.getTime());
     }
 }
@@ -30,15 +30,17 @@ public class UserDAO {
      */
     public static int insert(String name, String password, Date createdDate, String createdBy, Timestamp lastUpdated, String lastUpdatedBy) throws SQLException {
         String sql = "INSERT INTO users (User_Name, Password, Create_Date, Created_By, Last_Update, Last_Updated_By) VALUES(?,?,?,?,?,?)";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setString(2,password);
-        ps.setDate(3, createdDate);
-        ps.setString(4, createdBy);
-        ps.setTimestamp(5, lastUpdated);
-        ps.setString(6, lastUpdatedBy);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setString(2,password);
+            ps.setDate(3, createdDate);
+            ps.setString(4, createdBy);
+            ps.setTimestamp(5, lastUpdated);
+            ps.setString(6, lastUpdatedBy);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -57,16 +59,18 @@ public class UserDAO {
      */
     public static int update(int userID, String name,String password, Date createdDate, String createdBy, Timestamp lastUpdated, String lastUpdatedBy) throws SQLException {
         String sql = "UPDATE users SET User_Name=?, Password=?, Create_Date=?, Created_By=?, Last_Update=?, Last_Updated_By=? WHERE User_ID=?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setString(1, name);
-        ps.setString(2,password);
-        ps.setDate(3, createdDate);
-        ps.setString(4, createdBy);
-        ps.setTimestamp(5, lastUpdated);
-        ps.setString(6, lastUpdatedBy);
-        ps.setInt(7, userID);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setString(1, name);
+            ps.setString(2,password);
+            ps.setDate(3, createdDate);
+            ps.setString(4, createdBy);
+            ps.setTimestamp(5, lastUpdated);
+            ps.setString(6, lastUpdatedBy);
+            ps.setInt(7, userID);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
     /**
@@ -78,10 +82,12 @@ public class UserDAO {
      */
     public static int delete(int id) throws SQLException {
         String sql = "DELETE FROM USERS WHERE User_ID = ?";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ps.setInt(1,id);
-        int rowsAffected = ps.executeUpdate();
-        return rowsAffected;
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            ps.setInt(1,id);
+            int rowsAffected = ps.executeUpdate();
+            return rowsAffected;
+        }
     }
 
 
@@ -94,21 +100,24 @@ public class UserDAO {
     public static ObservableList<User> select() throws SQLException {
         ObservableList<User> allUsers = FXCollections.observableArrayList();
         String sql = "SELECT * FROM USERS";
-        PreparedStatement ps = JDBC.connection.prepareStatement(sql);
-        ResultSet rs = ps.executeQuery();
-        while(rs.next()){
-            int userID = rs.getInt("User_ID");
-            String name = rs.getString("User_Name");
-            String password = rs.getString("Password");
-            Date createdDate = rs.getDate("Create_Date");
-            String createdBy = rs.getString("Created_By");
-            Timestamp lastUpdate = rs.getTimestamp("Last_Update");
-            String lastUpdatedBy = rs.getString("Last_Updated_By");
+        try(Connection connection = JDBC.getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql)){
+            try(ResultSet rs = ps.executeQuery()){
+                while(rs.next()){
+                    int userID = rs.getInt("User_ID");
+                    String name = rs.getString("User_Name");
+                    String password = rs.getString("Password");
+                    Date createdDate = rs.getDate("Create_Date");
+                    String createdBy = rs.getString("Created_By");
+                    Timestamp lastUpdate = rs.getTimestamp("Last_Update");
+                    String lastUpdatedBy = rs.getString("Last_Updated_By");
 
 
-            User user = new User(userID,name,password,createdDate,createdBy,lastUpdate,lastUpdatedBy);
-            allUsers.add(user);
+                    User user = new User(userID,name,password,createdDate,createdBy,lastUpdate,lastUpdatedBy);
+                    allUsers.add(user);
+                }
+            }
+            return allUsers;
         }
-        return allUsers;
     }
 }
@@ -0,0 +1,205 @@
+/**
+ * A Zone Converter class for converting epoch milliseconds between instants and wall clock times of one time zone.
+ *
+ * @author Kevin Miller
+ */
+
+package utilities;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Zone Converter class for converting epoch milliseconds between instants and wall clock times of one time zone.
+ *
+ * A wall clock time is kept as local epoch milliseconds: the milliseconds since 1970-01-01T00:00 on that wall clock,
+ * as if it were UTC. The offset transitions of the zone are read from its ZoneRules once, up to the year 2100,
+ * into sorted arrays, so a conversion is a binary search and an addition and allocates nothing.
+ * Wall clock times in a gap or overlap are resolved the same way as ZonedDateTime.of: a time in a gap is moved
+ * later by the length of the gap, and a time in an overlap uses the earlier offset.
+ */
+public class ZoneConverter {
+
+    /**
+     * Converters already built, by zone.
+     */
+    private static final ConcurrentHashMap<ZoneId, ZoneConverter> converters = new ConcurrentHashMap<>();
+
+    /**
+     * Last instant covered by the transition tables, the start of the year 2100 UTC.
+     */
+    private static final long tableEndMillis = 4102444800000L;
+
+    /**
+     * Zone converted to and from, used past the end of the tables.
+     */
+    private final ZoneId zone;
+
+    /**
+     * Rules of the zone, used past the end of the tables.
+     */
+    private final ZoneRules rules;
+
+    /**
+     * Instant of each transition in epoch milliseconds, ascending.
+     */
+    private final long[] transitions;
+
+    /**
+     * Local epoch milliseconds from which each transition's new offset applies to wall clock times, ascending.
+     */
+    private final long[] localTransitions;
+
+    /**
+     * Offset in milliseconds before the first transition, then after each transition.
+     */
+    private final int[] offsets;
+
+    /**
+     * Constructor.
+     *
+     * @param zone to convert to and from.
+     */
+    private ZoneConverter(ZoneId zone){
+        this.zone = zone;
+        rules = zone.getRules();
+        List<ZoneOffsetTransition> found = new ArrayList<>(rules.getTransitions());
+        if(!rules.getTransitionRules().isEmpty()){
+            Instant last = found.isEmpty() ? Instant.ofEpochMilli(0) : found.get(found.size() - 1).getInstant();
+            for(ZoneOffsetTransition next = rules.nextTransition(last); next != null && next.getInstant().toEpochMilli() < tableEndMillis;
+                next = rules.nextTransition(next.getInstant())){
+                found.add(next);
+            }
+        }
+
+        int count = found.size();
+        transitions = new long[count];
+        localTransitions = new long[count];
+        offsets = new int[count + 1];
+        offsets[0] = count == 0 ? rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000
+                : found.get(0).getOffsetBefore().getTotalSeconds() * 1000;
+        for(int i = 0; i < count; i++){
+            ZoneOffsetTransition transition = found.get(i);
+            int before = transition.getOffsetBefore().getTotalSeconds() * 1000;
+            int after = transition.getOffsetAfter().getTotalSeconds() * 1000;
+            transitions[i] = transition.getInstant().toEpochMilli();
+            // The offset before keeps applying through a gap and through the repeated hour of an overlap.
+            localTransitions[i] = transitions[i] + Math.max(before, after);
+            offsets[i + 1] = after;
+        }
+    }
+
+    /**
+     * Get the converter of a zone, built on first use.
+     *
+     * @param zone to convert to and from.
+     * @return the converter.
+     */
+    public static ZoneConverter of(ZoneId zone){
+        return converters.computeIfAbsent(zone, ZoneConverter::new);
+    }
+
+    /**
+     * Logic to convert an instant to a wall clock time.
+     *
+     * @param epochMillis instant in epoch milliseconds.
+     * @return wall clock time in local epoch milliseconds.
+     */
+    public long toLocal(long epochMillis){
+        if(epochMillis >= tableEndMillis){
+            return epochMillis + rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000L;
+        }
+        return epochMillis + offsets[segment(transitions, epochMillis)];
+    }
+
+    /**
+     * Logic to convert a wall clock time to an instant.
+     *
+     * @param localMillis wall clock time in local epoch milliseconds.
+     * @return instant in epoch milliseconds.
+     */
+    public long toInstant(long localMillis){
+        if(localMillis >= tableEndMillis){
+            LocalDateTime local = LocalDateTime.ofEpochSecond(Math.floorDiv(localMillis, 1000L),
+                    (int) Math.floorMod(localMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+            return ZonedDateTime.of(local, zone).toInstant().toEpochMilli();
+        }
+        return localMillis - offsets[segment(localTransitions, localMillis)];
+    }
+
+    /**
+     * Logic to convert instants to wall clock times in place.
+     * Consecutive values in the same offset period reuse the previous search, so sorted input is converted in one pass.
+     *
+     * @param millis instants in epoch milliseconds, replaced by wall clock times in local epoch milliseconds.
+     */
+    public void toLocal(long[] millis){
+        convert(millis, transitions, 1);
+    }
+
+    /**
+     * Logic to convert wall clock times to instants in place.
+     * Consecutive values in the same offset period reuse the previous search, so sorted input is converted in one pass.
+     *
+     * @param millis wall clock times in local epoch milliseconds, replaced by instants in epoch milliseconds.
+     */
+    public void toInstant(long[] millis){
+        convert(millis, localTransitions, -1);
+    }
+
+    /**
+     * Logic to add or subtract the offset of each value's period in place.
+     *
+     * @param millis values to convert.
+     * @param bounds transition table the values are searched in.
+     * @param sign 1 to add the offset, -1 to subtract it.
+     */
+    private void convert(long[] millis, long[] bounds, int sign){
+        int segment = 0;
+        long low = Long.MIN_VALUE;
+        long high = bounds.length == 0 ? Long.MAX_VALUE : bounds[0];
+        for(int i = 0; i < millis.length; i++){
+            long value = millis[i];
+            if(value >= tableEndMillis){
+                millis[i] = sign > 0 ? toLocal(value) : toInstant(value);
+                continue;
+            }
+            if(value < low || value >= high){
+                segment = segment(bounds, value);
+                low = segment == 0 ? Long.MIN_VALUE : bounds[segment - 1];
+                high = segment == bounds.length ? Long.MAX_VALUE : bounds[segment];
+            }
+            millis[i] = value + sign * (long) offsets[segment];
+        }
+    }
+
+    /**
+     * Logic to find the offset period of a value.
+     *
+     * @param bounds ascending transition table.
+     * @param value to look up.
+     * @return the number of transitions at or before the value, an index into offsets.
+     */
+    private static int segment(long[] bounds, long value){
+        int lo = 0;
+        int hi = bounds.length;
+        while(lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(bounds[mid] <= value){
+                lo = mid + 1;
+            }
+            else{
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}